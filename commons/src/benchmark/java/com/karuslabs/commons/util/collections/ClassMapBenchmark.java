@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.lang.reflect.Array;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ClassMapBenchmark {
+    
+    static final Class<?>[] COMPONENTS = {boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class};
+    
+    
+    @Param({"hash", "dense", "frozen"})
+    String implementation;
+    
+    @Param({"16", "256"})
+    int size;
+    
+    ClassMap<Object> map;
+    Class<?>[] keys;
+    Class<?>[] absent;
+    int index;
+    
+    
+    @Setup
+    public void setup() {
+        var entries = new HashMap<Class<? extends Object>, Object>();
+        keys = new Class<?>[size];
+        absent = new Class<?>[size];
+        
+        // Array classes of increasing dimensions provide as many distinct keys as needed
+        for (int i = 0; i < size; i++) {
+            keys[i] = Array.newInstance(COMPONENTS[i % COMPONENTS.length], new int[i / COMPONENTS.length + 1]).getClass();
+            absent[i] = Array.newInstance(COMPONENTS[i % COMPONENTS.length], new int[(size + i) / COMPONENTS.length + 1]).getClass();
+            entries.put(keys[i], i);
+        }
+        
+        if (implementation.equals("frozen")) {
+            map = ClassMap.copyOf(entries);
+            
+        } else {
+            map = implementation.equals("hash") ? ClassMap.of() : ClassMap.dense();
+            map.map().putAll(entries);
+        }
+    }
+    
+    
+    @Benchmark
+    public Object get() {
+        return map.get(keys[index++ & (size - 1)]);
+    }
+    
+    @Benchmark
+    public Object getOrDefault() {
+        return map.getOrDefault((Class<Object>) keys[index++ & (size - 1)], this);
+    }
+    
+    @Benchmark
+    public boolean containsKey() {
+        return map.containsKey(keys[index++ & (size - 1)]);
+    }
+    
+    @Benchmark
+    public boolean containsKey_absent() {
+        return map.containsKey(absent[index++ & (size - 1)]);
+    }
+    
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+
+// The map is shared by all threads, run with -t 1, 2, 4, ... to compare how writers scale
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TokenMapBenchmark {
+    
+    @State(Scope.Thread)
+    public static class Index {
+        
+        int value;
+        
+    }
+    
+    
+    @Param({"concurrent", "probing"})
+    String implementation;
+    
+    @Param({"1024"})
+    int size;
+    
+    ConcurrentTokenMap<String, Object> map;
+    String[] names;
+    
+    
+    @Setup
+    public void setup() {
+        map = implementation.equals("concurrent") ? ConcurrentTokenMap.of() : ConcurrentTokenMap.probing();
+        names = new String[size];
+        
+        for (int i = 0; i < size; i++) {
+            names[i] = "name" + i;
+            map.put(names[i], Integer.class, i);
+            map.putInt(names[i], i);
+        }
+    }
+    
+    
+    @Benchmark
+    public Object get(Index index) {
+        return map.get(names[index.value++ & (size - 1)], Integer.class);
+    }
+    
+    @Benchmark
+    public Object put(Index index) {
+        int i = index.value++ & (size - 1);
+        return map.put(names[i], Integer.class, i);
+    }
+    
+    @Benchmark
+    public int addAndGet(Index index) {
+        return map.addAndGet(names[index.value++ & (size - 1)], 1);
+    }
+    
+}
@@ -0,0 +1,90 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.*;
+
+
+// Run with -prof gc, the gc.alloc.rate.norm of build is the number of bytes allocated to build a map and
+// approximates its footprint, since the only other allocations are the tables discarded by resizes
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TypedTokenMapBenchmark {
+    
+    static final Class<?>[] TYPES = {
+        String.class, Integer.class, Long.class, Double.class, Boolean.class, Character.class, Short.class, Byte.class,
+        Float.class, Object.class, Number.class, CharSequence.class, StringBuilder.class, Thread.class, Runnable.class, Class.class
+    };
+    
+    
+    @Param({"hash", "typed"})
+    String implementation;
+    
+    @Param({"1", "4", "16"})
+    int types;
+    
+    @Param({"1", "8", "64"})
+    int names;
+    
+    String[] keys;
+    TokenMap<String, Object> map;
+    
+    
+    @Setup
+    public void setup() {
+        keys = new String[names];
+        for (int i = 0; i < names; i++) {
+            keys[i] = "name" + i;
+        }
+        map = build();
+    }
+    
+    
+    @Benchmark
+    public TokenMap<String, Object> build() {
+        TokenMap<String, Object> map = implementation.equals("hash") ? TokenMap.of() : TokenMap.typed();
+        for (int i = 0; i < types; i++) {
+            for (var key : keys) {
+                map.put(key, (Class<Object>) TYPES[i], key);
+            }
+        }
+        return map;
+    }
+    
+    @Benchmark
+    public int view() {
+        int count = 0;
+        for (var entry : map.view(String.class).entrySet()) {
+            count += entry.getKey().length();
+        }
+        return count;
+    }
+    
+}
@@ -0,0 +1,246 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.store;
+
+import com.karuslabs.commons.util.collections.TokenMap;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.bukkit.World;
+import org.bukkit.entity.*;
+import org.bukkit.event.*;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.*;
+import org.bukkit.plugin.Plugin;
+import org.bukkit.scheduler.BukkitTask;
+
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+
+// Maps are released once their owner quits, dies or is unloaded, and the store is closed when its plugin is disabled.
+// Entities that despawn or are removed without an event are released by a periodic sweep of entities that are no longer
+// valid, except for players, which are also invalid while dead and only released once they quit. Released maps are
+// cleared and pooled for reuse on the next tick, so that handlers of the releasing event may still read them, and must
+// not be retained afterwards. Maps released while the plugin is disabled are not pooled since no tick can be scheduled.
+// Plugins that persist a map asynchronously should detach it instead, taking ownership of the map.
+public class TokenStore<N, T> implements Listener {
+    
+    static final long SWEEP = 20 * 60;
+    
+    
+    public static <N, T> TokenStore<N, T> of(Plugin plugin) {
+        return of(plugin, TokenMap::of, 64);
+    }
+    
+    public static <N, T> TokenStore<N, T> of(Plugin plugin, Supplier<? extends TokenMap<N, T>> factory, int pool) {
+        var store = new TokenStore<N, T>(plugin, factory, pool);
+        var server = plugin.getServer();
+        server.getPluginManager().registerEvents(store, plugin);
+        store.sweeper = server.getScheduler().runTaskTimer(plugin, store::sweep, SWEEP, SWEEP);
+        return store;
+    }
+    
+    
+    final Plugin plugin;
+    final Supplier<? extends TokenMap<N, T>> factory;
+    final Map<UUID, TokenMap<N, T>> entities = new ConcurrentHashMap<>();
+    final Map<UUID, TokenMap<N, T>> worlds = new ConcurrentHashMap<>();
+    final Queue<TokenMap<N, T>> released = new ConcurrentLinkedQueue<>();
+    final AtomicBoolean scheduled = new AtomicBoolean();
+    final Deque<TokenMap<N, T>> pool;
+    final int capacity;
+    @Nullable BukkitTask sweeper;
+    volatile boolean closed;
+    
+    
+    TokenStore(Plugin plugin, Supplier<? extends TokenMap<N, T>> factory, int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("Pool capacity must not be negative: " + capacity);
+        }
+        
+        this.plugin = plugin;
+        this.factory = factory;
+        this.pool = new ArrayDeque<>(capacity);
+        this.capacity = capacity;
+    }
+    
+    
+    public TokenMap<N, T> get(Entity entity) {
+        open();
+        return entities.computeIfAbsent(entity.getUniqueId(), id -> acquire());
+    }
+    
+    public TokenMap<N, T> get(World world) {
+        open();
+        return worlds.computeIfAbsent(world.getUID(), id -> acquire());
+    }
+    
+    public @Nullable TokenMap<N, T> getIfPresent(Entity entity) {
+        return entities.get(entity.getUniqueId());
+    }
+    
+    public @Nullable TokenMap<N, T> getIfPresent(World world) {
+        return worlds.get(world.getUID());
+    }
+    
+    
+    public boolean release(Entity entity) {
+        return release(entities.remove(entity.getUniqueId()));
+    }
+    
+    public boolean release(World world) {
+        for (var entity : world.getEntities()) {
+            release(entity);
+        }
+        return release(worlds.remove(world.getUID()));
+    }
+    
+    public @Nullable TokenMap<N, T> detach(Entity entity) {
+        return entities.remove(entity.getUniqueId());
+    }
+    
+    public @Nullable TokenMap<N, T> detach(World world) {
+        return worlds.remove(world.getUID());
+    }
+    
+    // Maps are not cleared since their owners may still be saved asynchronously while the plugin is disabled
+    public void close() {
+        closed = true;
+        HandlerList.unregisterAll(this);
+        if (sweeper != null) {
+            sweeper.cancel();
+        }
+        
+        entities.clear();
+        worlds.clear();
+        released.clear();
+        synchronized (pool) {
+            pool.clear();
+        }
+    }
+    
+    
+    void open() {
+        if (closed) {
+            throw new IllegalStateException("Store has been closed");
+        }
+    }
+    
+    TokenMap<N, T> acquire() {
+        synchronized (pool) {
+            var map = pool.poll();
+            if (map != null) {
+                return map;
+            }
+        }
+        return factory.get();
+    }
+    
+    boolean release(@Nullable TokenMap<N, T> map) {
+        if (map == null) {
+            return false;
+        }
+        
+        if (plugin.isEnabled()) {
+            released.add(map);
+            if (scheduled.compareAndSet(false, true)) {
+                plugin.getServer().getScheduler().runTask(plugin, this::recycle);
+            }
+        }
+        return true;
+    }
+    
+    void recycle() {
+        scheduled.set(false);
+        for (TokenMap<N, T> map; (map = released.poll()) != null;) {
+            map.map().clear();
+            synchronized (pool) {
+                if (pool.size() < capacity) {
+                    pool.push(map);
+                }
+            }
+        }
+    }
+    
+    void sweep() {
+        var server = plugin.getServer();
+        for (var entry : entities.entrySet()) {
+            var entity = server.getEntity(entry.getKey());
+            if ((entity == null || !(entity instanceof Player) && !entity.isValid()) && entities.remove(entry.getKey(), entry.getValue())) {
+                release(entry.getValue());
+            }
+        }
+    }
+    
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void quit(PlayerQuitEvent event) {
+        release(event.getPlayer());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void death(EntityDeathEvent event) {
+        if (!(event.getEntity() instanceof Player)) {
+            release(event.getEntity());
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void unload(ChunkUnloadEvent event) {
+        for (var entity : event.getChunk().getEntities()) {
+            if (!(entity instanceof Player)) {
+                release(entity);
+            }
+        }
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+    public void unload(WorldUnloadEvent event) {
+        release(event.getWorld());
+    }
+    
+    @EventHandler(priority = EventPriority.MONITOR)
+    public void disable(PluginDisableEvent event) {
+        if (event.getPlugin() == plugin) {
+            close();
+        }
+    }
+    
+    
+    public int size() {
+        return entities.size() + worlds.size();
+    }
+    
+    public int pooled() {
+        synchronized (pool) {
+            return pool.size();
+        }
+    }
+    
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.google.common.primitives.Primitives;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+import static com.karuslabs.commons.util.collections.TokenMap.key;
+
+
+// Values of indexed keys are stored in an array slot at the index of the key, which is only grown up to the
+// highest slot used. Keys that were never indexed are stored in an overflow map which is created on demand
+class ArrayTokenMap<N, T> implements TokenMap<N, T> {
+    
+    static final Object[] EMPTY = {};
+    
+    
+    Object[] slots = EMPTY;
+    int occupied;
+    Map<Key<N, ? extends T>, T> overflow;
+    Key<N, T> cached = key(null, null);
+    private final View view = new View();
+    
+    
+    static int index(Key<?, ?> key) {
+        if (key.index >= 0) {
+            return key.index;
+        }
+        
+        var indexed = Registry.KEYS.get(key);
+        return indexed == null ? -1 : indexed.index;
+    }
+    
+    
+    T find(Key<?, ?> key) {
+        int index = key.index;
+        if (index >= 0 && index < slots.length && slots[index] != null) {
+            return (T) slots[index];
+        }
+        
+        index = index(key);
+        if (index >= 0 && index < slots.length && slots[index] != null) {
+            return (T) slots[index];
+        }
+        
+        // A key may have been indexed after a value was associated with it
+        return overflow == null ? null : overflow.get(key);
+    }
+    
+    T insert(Key<N, ? extends T> key, T value) {
+        Objects.requireNonNull(value);
+        int index = index(key);
+        if (index < 0) {
+            if (overflow == null) {
+                overflow = new HashMap<>();
+            }
+            return overflow.put(key, value);
+        }
+        
+        if (index >= slots.length) {
+            slots = Arrays.copyOf(slots, Math.max(index + 1, Math.min(slots.length * 2, Registry.size())));
+        }
+        
+        var old = (T) slots[index];
+        slots[index] = value;
+        if (old == null) {
+            occupied++;
+            if (overflow != null) {
+                old = overflow.remove(key);
+            }
+        }
+        return old;
+    }
+    
+    T delete(Key<?, ?> key) {
+        int index = index(key);
+        if (index >= 0 && index < slots.length && slots[index] != null) {
+            var old = (T) slots[index];
+            slots[index] = null;
+            occupied--;
+            return old;
+        }
+        
+        return overflow == null ? null : overflow.remove(key);
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        return find(cached.set(name, type)) != null;
+    }
+    
+    @Override
+    public <U extends T> boolean containsKey(Key<N, U> key) {
+        return find(key) != null;
+    }
+    
+    
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return (U) find(cached.set(name, type));
+    }
+    
+    @Override
+    public <U extends T> U get(Key<N, U> key) {
+        return (U) find(key);
+    }
+    
+    
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        return getOrDefault((Key<N, U>) cached.set(name, type), value);
+    }
+    
+    @Override
+    public <U extends T> U getOrDefault(Key<N, U> key, U value) {
+        var item = find(key);
+        return item != null && Primitives.wrap(key.type).isAssignableFrom(item.getClass()) ? (U) item : value;
+    }
+    
+    
+    @Override
+    public <U extends T> U put(Key<N, U> key, U value) {
+        return (U) insert(key, value);
+    }
+    
+    
+    @Override
+    public Map<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return key instanceof Key<?, ?> && find((Key<?, ?>) key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            return key instanceof Key<?, ?> ? find((Key<?, ?>) key) : null;
+        }
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            return insert(key, value);
+        }
+        
+        @Override
+        public T remove(Object key) {
+            return key instanceof Key<?, ?> ? delete((Key<?, ?>) key) : null;
+        }
+        
+        @Override
+        public void clear() {
+            slots = EMPTY;
+            occupied = 0;
+            overflow = null;
+        }
+        
+        
+        @Override
+        public int size() {
+            return overflow == null ? occupied : occupied + overflow.size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Entry<Key<N, ? extends T>, T>> overflowed = overflow == null ? Collections.emptyIterator() : overflow.entrySet().iterator();
+        private int index;
+        private int last = -1;
+        private boolean removable;
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (index < slots.length && slots[index] == null) {
+                index++;
+            }
+            return index < slots.length || overflowed.hasNext();
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            removable = true;
+            if (index < slots.length) {
+                last = index++;
+                Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>((Key<N, ? extends T>) Registry.key(last), (T) slots[last]);
+                return entry;
+            }
+            
+            last = -1;
+            return overflowed.next();
+        }
+        
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            
+            removable = false;
+            if (last >= 0) {
+                slots[last] = null;
+                occupied--;
+                
+            } else {
+                overflowed.remove();
+            }
+        }
+        
+    }
+    
+}
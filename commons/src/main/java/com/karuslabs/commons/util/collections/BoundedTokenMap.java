@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.function.ToIntBiFunction;
+
+
+public interface BoundedTokenMap<N, T> extends ConcurrentTokenMap<N, T> {
+    
+    public static <N, T> BoundedTokenMap<N, T> of(long maximum) {
+        return of(maximum, (key, value) -> 1);
+    }
+    
+    public static <N, T> BoundedTokenMap<N, T> of(long maximum, ToIntBiFunction<? super Key<N, ? extends T>, ? super T> weigher) {
+        return new ConcurrentBoundedTokenMap<>(maximum, weigher);
+    }
+    
+    
+    public long weight();
+    
+    public long maximum();
+    
+    public Statistics statistics();
+    
+    
+    public final class Statistics {
+        
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long loads;
+        private final long failures;
+        private final long loading;
+        
+        
+        Statistics(long hits, long misses, long evictions, long loads, long failures, long loading) {
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.loads = loads;
+            this.failures = failures;
+            this.loading = loading;
+        }
+        
+        
+        public long hits() {
+            return hits;
+        }
+        
+        public long misses() {
+            return misses;
+        }
+        
+        public double hitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 1 : (double) hits / requests;
+        }
+        
+        public long evictions() {
+            return evictions;
+        }
+        
+        public long loads() {
+            return loads;
+        }
+        
+        public long failures() {
+            return failures;
+        }
+        
+        public long loading() {
+            return loading;
+        }
+        
+        
+        @Override
+        public String toString() {
+            return "Statistics[hits: " + hits + " misses: " + misses + " evictions: " + evictions 
+                 + " loads: " + loads + " failures: " + failures + " loading: " + loading + "ns]";
+        }
+        
+    }
+    
+}
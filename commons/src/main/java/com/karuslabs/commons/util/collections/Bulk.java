@@ -0,0 +1,78 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.*;
+import java.util.stream.Stream;
+
+
+// Bulk operations for concurrent maps that are not backed by a ConcurrentHashMap. The threshold has the same
+// meaning as in ConcurrentHashMap, the operation is performed in parallel if the map has at least that many elements
+final class Bulk {
+    
+    static <K, V> void forEach(Map<K, V> map, long threshold, BiConsumer<? super K, ? super V> action) {
+        if (map instanceof ConcurrentHashMap<?, ?>) {
+            ((ConcurrentHashMap<K, V>) map).forEach(threshold, action);
+            
+        } else {
+            stream(map, threshold).forEach(entry -> action.accept(entry.getKey(), entry.getValue()));
+        }
+    }
+    
+    static <K, V, U> U search(Map<K, V> map, long threshold, BiFunction<? super K, ? super V, ? extends U> function) {
+        if (map instanceof ConcurrentHashMap<?, ?>) {
+            return ((ConcurrentHashMap<K, V>) map).search(threshold, function);
+            
+        } else {
+            return stream(map, threshold).<U>map(entry -> function.apply(entry.getKey(), entry.getValue()))
+                                         .filter(Objects::nonNull)
+                                         .findAny()
+                                         .orElse(null);
+        }
+    }
+    
+    static <K, V, U> U reduce(Map<K, V> map, long threshold, BiFunction<? super K, ? super V, ? extends U> transformer, BiFunction<? super U, ? super U, ? extends U> reducer) {
+        if (map instanceof ConcurrentHashMap<?, ?>) {
+            return ((ConcurrentHashMap<K, V>) map).reduce(threshold, transformer, reducer);
+            
+        } else {
+            return stream(map, threshold).<U>map(entry -> transformer.apply(entry.getKey(), entry.getValue()))
+                                         .filter(Objects::nonNull)
+                                         .reduce((a, b) -> reducer.apply(a, b))
+                                         .orElse(null);
+        }
+    }
+    
+    static <K, V> Stream<Entry<K, V>> stream(Map<K, V> map, long threshold) {
+        var entries = map.entrySet();
+        return entries.size() >= threshold ? entries.parallelStream() : entries.stream();
+    }
+    
+    
+    private Bulk() {}
+    
+}
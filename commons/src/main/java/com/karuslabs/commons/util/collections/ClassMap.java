@@ -26,6 +26,10 @@ package com.karuslabs.commons.util.collections;
 import com.google.common.primitives.Primitives;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.*;
+
+import static com.karuslabs.commons.util.collections.Supertypes.SUPERTYPES;
 
 
 public interface ClassMap<T> {
@@ -43,8 +47,32 @@ public interface ClassMap<T> {
     }
     
     
+    public static <T> ClassMap<T> copyOf(Map<Class<? extends T>, ? extends T> map) {
+        return FrozenClassMap.of(map);
+    }
+    
+    
+    public static <T> ClassMap<T> dense() {
+        return new DenseClassMap<>();
+    }
+    
+    public static <T> ClassMap<T> dense(int capacity) {
+        return new DenseClassMap<>(capacity);
+    }
+    
+    
+    public static <T> ClassMap<T> overlay(ClassMap<T> parent) {
+        return new OverlayClassMap<>(parent);
+    }
+    
+    
+    public static <T> ClassMap<T> unboxed() {
+        return new UnboxedClassMap<>();
+    }
+    
+    
     public default <U extends T> boolean containsKey(Class<U> type) {
-        return map().containsKey(type);
+        return map().containsKey(type) || Lazy.pending(this, type);
     }
     
     public default <U extends T> boolean containsValue(U value) {
@@ -53,11 +81,11 @@ public interface ClassMap<T> {
         
     
     public default <U extends T> U get(Class<U> type) {
-        return (U) map().get(type);
+        return (U) Lazy.get(this, map(), type);
     }
     
     public default <U extends T> U getOrDefault(Class<U> type, U value) {
-        var item = map().get(type);
+        var item = Lazy.get(this, map(), type);
         if (item != null && Primitives.wrap(type).isAssignableFrom(item.getClass())) {
             return (U) item;
             
@@ -66,17 +94,190 @@ public interface ClassMap<T> {
         }
     }
     
+    public default <U extends T> T getAssignable(Class<U> type) {
+        var map = map();
+        for (var supertype : SUPERTYPES.get(type)) {
+            var value = Lazy.get(this, map, supertype);
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+    
+    public default int getInt(Class<Integer> type, int value) {
+        var item = Lazy.get(this, map(), type);
+        return item instanceof Integer ? (Integer) item : value;
+    }
+    
+    public default long getLong(Class<Long> type, long value) {
+        var item = Lazy.get(this, map(), type);
+        return item instanceof Long ? (Long) item : value;
+    }
+    
+    public default double getDouble(Class<Double> type, double value) {
+        var item = Lazy.get(this, map(), type);
+        return item instanceof Double ? (Double) item : value;
+    }
+    
+    
     public default <U extends T> U put(Class<U> type, U value) {
+        Lazy.cancel(this, type);
         return (U) map().put(type, value);
     }
     
+    public default <U extends T> U putIfAbsent(Class<U> type, U value) {
+        var map = map();
+        var lazy = Lazy.resolve(this, map, type);
+        return (U) (lazy != null ? lazy : map.putIfAbsent(type, value));
+    }
+    
+    // The supplier is invoked at most once, on the first retrieval of the value through this ClassMap. Until then the
+    // value is kept outside of map() by the implementations in this package and resolved immediately by others
+    public default <U extends T> void putLazy(Class<U> type, Supplier<? extends U> supplier) {
+        Lazy.put(this, type, supplier);
+    }
+    
+    
+    public default <U extends T> U computeIfAbsent(Class<U> type, Function<? super Class<U>, ? extends U> function) {
+        var map = map();
+        var lazy = Lazy.resolve(this, map, type);
+        return (U) (lazy != null ? lazy : map.computeIfAbsent(type, key -> function.apply((Class<U>) key)));
+    }
+    
+    public default <U extends T> U compute(Class<U> type, BiFunction<? super Class<U>, ? super U, ? extends U> function) {
+        var map = map();
+        Lazy.resolve(this, map, type);
+        return (U) map.compute(type, (key, value) -> function.apply((Class<U>) key, (U) value));
+    }
+    
+    public default <U extends T> U merge(Class<U> type, U value, BiFunction<? super U, ? super U, ? extends U> function) {
+        var map = map();
+        Lazy.resolve(this, map, type);
+        return (U) map.merge(type, value, (old, given) -> function.apply((U) old, (U) given));
+    }
+    
+    
+    public default <U extends T> U replace(Class<U> type, U value) {
+        var map = map();
+        Lazy.resolve(this, map, type);
+        return (U) map.replace(type, value);
+    }
+    
+    public default <U extends T> boolean replace(Class<U> type, U old, U value) {
+        var map = map();
+        Lazy.resolve(this, map, type);
+        return map.replace(type, old, value);
+    }
+    
+    
+    public default void putInt(Class<Integer> type, int value) {
+        Lazy.cancel(this, type);
+        map().put((Class<? extends T>) (Class<?>) type, (T) (Integer) value);
+    }
+    
+    public default void putLong(Class<Long> type, long value) {
+        Lazy.cancel(this, type);
+        map().put((Class<? extends T>) (Class<?>) type, (T) (Long) value);
+    }
+    
+    public default void putDouble(Class<Double> type, double value) {
+        Lazy.cancel(this, type);
+        map().put((Class<? extends T>) (Class<?>) type, (T) (Double) value);
+    }
+    
+    
+    public default Stats stats() {
+        return Stats.unavailable(map().size());
+    }
+    
     
     public Map<Class<? extends T>, T> map();
     
 }
 
 
-class HashClassMap<T> extends HashMap<Class<? extends T>, T> implements ClassMap<T> {
+// Reports keys added through any of the operations of HashMap that insert. Declared apart from HashClassMap since
+// overriding these operations there would clash with the erasures of the typed operations of ClassMap
+@SuppressWarnings("serial")
+abstract class ObservedHashMap<K, V> extends HashMap<K, V> {
+    
+    ObservedHashMap() {}
+    
+    ObservedHashMap(int capacity) {
+        super(capacity);
+    }
+    
+    
+    @Override
+    public V put(K key, V value) {
+        int size = size();
+        var old = super.put(key, value);
+        if (size() > size) {
+            added();
+        }
+        return old;
+    }
+    
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        int size = size();
+        super.putAll(map);
+        if (size() > size) {
+            added();
+        }
+    }
+    
+    @Override
+    public V putIfAbsent(K key, V value) {
+        int size = size();
+        var old = super.putIfAbsent(key, value);
+        if (size() > size) {
+            added();
+        }
+        return old;
+    }
+    
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        int size = size();
+        var value = super.computeIfAbsent(key, function);
+        if (size() > size) {
+            added();
+        }
+        return value;
+    }
+    
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        int size = size();
+        var value = super.compute(key, function);
+        if (size() > size) {
+            added();
+        }
+        return value;
+    }
+    
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        int size = size();
+        var merged = super.merge(key, value, function);
+        if (size() > size) {
+            added();
+        }
+        return merged;
+    }
+    
+    
+    abstract void added();
+    
+}
+
+class HashClassMap<T> extends ObservedHashMap<Class<? extends T>, T> implements ClassMap<T>, Lazy.Table {
+    
+    private volatile Resolver<T> resolver;
+    private Map<Class<?>, Lazy<?>> lazies;
+    
     
     HashClassMap() {}
     
@@ -84,6 +285,45 @@ class HashClassMap<T> extends HashMap<Class<? extends T>, T> implements ClassMap
         super(capacity);
     }
     
+    
+    @Override
+    public <U extends T> T getAssignable(Class<U> type) {
+        var resolver = this.resolver;
+        if (resolver == null) {
+            this.resolver = resolver = new Resolver<>(this, this);
+        }
+        return resolver.resolve(type);
+    }
+    
+    @Override
+    public <U extends T> void putLazy(Class<U> type, Supplier<? extends U> supplier) {
+        ClassMap.super.putLazy(type, supplier);
+        added();
+    }
+    
+    @Override
+    void added() {
+        var resolver = this.resolver;
+        if (resolver != null) {
+            resolver.invalidate();
+        }
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        return Stats.simulate(keySet());
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        if (lazies == null && create) {
+            lazies = new ConcurrentHashMap<>();
+        }
+        return lazies;
+    }
+    
     @Override
     public Map<Class<? extends T>, T> map() {
         return this;
@@ -91,13 +331,22 @@ class HashClassMap<T> extends HashMap<Class<? extends T>, T> implements ClassMap
     
 }
 
-class ProxiedClassMap<T> implements ClassMap<T> {
+class ProxiedClassMap<T> implements ClassMap<T>, Lazy.Table {
     
     private Map<Class<? extends T>, T> map;
+    private Map<Class<?>, Lazy<?>> lazies;
     
     ProxiedClassMap(Map<Class<? extends T>, T> map) {
         this.map = map;
     }
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        if (lazies == null && create) {
+            lazies = new ConcurrentHashMap<>();
+        }
+        return lazies;
+    }
 
     @Override
     public Map<Class<? extends T>, T> map() {
@@ -0,0 +1,555 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.*;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.*;
+
+
+// Entries are stored in a ConcurrentHashMap while the eviction policy, a W-TinyLFU, is only ever updated by the
+// thread that wins a tryLock. Reads are recorded in lossy striped ring buffers and writes in a queue, both drained
+// by that thread, so neither reads nor writes wait on the policy. The weight may briefly exceed the maximum until
+// pending writes are drained.
+//
+// New entries are admitted to a small LRU window. Entries leaving the window compete against the least recently
+// used entry of the probationary segment of the main space, and the one with the lower estimated frequency is
+// evicted. Entries accessed while on probation are promoted to the protected segment.
+class ConcurrentBoundedTokenMap<N, T> implements BoundedTokenMap<N, T> {
+    
+    static final int WINDOW = 0;
+    static final int PROBATION = 1;
+    static final int PROTECTED = 2;
+    
+    static final int STRIPES = Integer.highestOneBit(Runtime.getRuntime().availableProcessors() * 2 - 1) << 1;
+    static final int BUFFER = 16;
+    
+    
+    final ConcurrentHashMap<Key<N, ? extends T>, Node<N, T>> data = new ConcurrentHashMap<>();
+    final ToIntBiFunction<? super Key<N, ? extends T>, ? super T> weigher;
+    final ReadBuffer<N, T>[] reads = buffers(STRIPES);
+    final Queue<Runnable> writes = new ConcurrentLinkedQueue<>();
+    final ReentrantLock lock = new ReentrantLock();
+    
+    final FrequencySketch sketch;
+    final Node<N, T>[] queues = queues(3);
+    final long[] weights = new long[3];
+    final long maximum;
+    final long window;
+    final long protection;
+    volatile long weight;
+    
+    final LongAdder hits = new LongAdder();
+    final LongAdder misses = new LongAdder();
+    final LongAdder evictions = new LongAdder();
+    final LongAdder loads = new LongAdder();
+    final LongAdder failures = new LongAdder();
+    final LongAdder loading = new LongAdder();
+    
+    private final View view = new View();
+    
+    
+    ConcurrentBoundedTokenMap(long maximum, ToIntBiFunction<? super Key<N, ? extends T>, ? super T> weigher) {
+        if (maximum <= 0) {
+            throw new IllegalArgumentException("Maximum weight must be positive: " + maximum);
+        }
+        
+        this.maximum = maximum;
+        this.weigher = weigher;
+        this.window = Math.max(1, maximum / 100);
+        this.protection = (maximum - window) * 8 / 10;
+        this.sketch = new FrequencySketch(maximum);
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <N, T> ReadBuffer<N, T>[] buffers(int length) {
+        var buffers = (ReadBuffer<N, T>[]) new ReadBuffer<?, ?>[length];
+        for (int i = 0; i < length; i++) {
+            buffers[i] = new ReadBuffer<>();
+        }
+        return buffers;
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <N, T> Node<N, T>[] queues(int length) {
+        var queues = (Node<N, T>[]) new Node<?, ?>[length];
+        for (int i = 0; i < length; i++) {
+            queues[i] = sentinel();
+        }
+        return queues;
+    }
+    
+    static <N, T> Node<N, T> sentinel() {
+        Node<N, T> sentinel = new Node<>(null, null, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+    
+    
+    T read(Object key) {
+        var node = data.get(key);
+        if (node == null) {
+            misses.increment();
+            return null;
+        }
+        
+        hits.increment();
+        if (!reads[(int) Thread.currentThread().getId() & (STRIPES - 1)].offer(node)) {
+            maintain();
+        }
+        return node.value;
+    }
+    
+    Node<N, T> node(Key<N, ? extends T> key, T value) {
+        int weight = weigher.applyAsInt(key, value);
+        if (weight < 0) {
+            throw new IllegalArgumentException("Weight must not be negative: " + weight);
+        }
+        return new Node<>(key, value, weight);
+    }
+    
+    void added(Node<N, T> node) {
+        writes.add(() -> add(node));
+        maintain();
+    }
+    
+    void removed(Node<N, T> node) {
+        node.retired = true;
+        writes.add(() -> remove(node));
+        maintain();
+    }
+    
+    void replaced(Node<N, T> old, Node<N, T> node) {
+        old.retired = true;
+        writes.add(() -> {
+            remove(old);
+            add(node);
+        });
+        maintain();
+    }
+    
+    
+    // Only the thread that acquires the lock drains the buffers, other threads leave their writes for it. 
+    // The queue is checked again after unlocking since a write may have been queued after the last drain
+    void maintain() {
+        while (lock.tryLock()) {
+            try {
+                for (var buffer : reads) {
+                    buffer.drain(this);
+                }
+                
+                for (var write = writes.poll(); write != null; write = writes.poll()) {
+                    write.run();
+                }
+                
+                evict();
+                
+            } finally {
+                lock.unlock();
+            }
+            
+            if (writes.isEmpty()) {
+                return;
+            }
+        }
+    }
+    
+    
+    void add(Node<N, T> node) {
+        if (node.retired) {
+            return;
+        }
+        
+        sketch.increment(node.key);
+        link(WINDOW, node);
+    }
+    
+    void remove(Node<N, T> node) {
+        if (node.previous != null) {
+            unlink(node);
+        }
+    }
+    
+    void access(Node<N, T> node) {
+        if (node.previous == null) {
+            return;
+        }
+        
+        sketch.increment(node.key);
+        if (node.queue == PROBATION) {
+            unlink(node);
+            link(PROTECTED, node);
+            
+            while (weights[PROTECTED] > protection) {
+                var demoted = queues[PROTECTED].next;
+                unlink(demoted);
+                link(PROBATION, demoted);
+            }
+            
+        } else {
+            unlink(node);
+            link(node.queue, node);
+        }
+    }
+    
+    void evict() {
+        while (weights[WINDOW] > window) {
+            var candidate = queues[WINDOW].next;
+            unlink(candidate);
+            link(PROBATION, candidate);
+            
+            if (weight <= maximum) {
+                continue;
+            }
+            
+            var victim = queues[PROBATION].next;
+            if (victim == candidate) {
+                victim = queues[PROTECTED].next != queues[PROTECTED] ? queues[PROTECTED].next : candidate;
+            }
+            
+            evict(sketch.frequency(candidate.key) > sketch.frequency(victim.key) ? victim : candidate);
+        }
+        
+        while (weight > maximum) {
+            var victim = first(PROBATION, PROTECTED, WINDOW);
+            if (victim == null) {
+                return;
+            }
+            evict(victim);
+        }
+    }
+    
+    void evict(Node<N, T> node) {
+        unlink(node);
+        if (data.remove(node.key, node)) {
+            node.retired = true;
+            evictions.increment();
+        }
+    }
+    
+    Node<N, T> first(int... queues) {
+        for (var queue : queues) {
+            var first = this.queues[queue].next;
+            if (first != this.queues[queue]) {
+                return first;
+            }
+        }
+        return null;
+    }
+    
+    
+    void link(int queue, Node<N, T> node) {
+        var sentinel = queues[queue];
+        node.queue = queue;
+        node.previous = sentinel.previous;
+        node.next = sentinel;
+        sentinel.previous.next = node;
+        sentinel.previous = node;
+        
+        weights[queue] += node.weight;
+        weight += node.weight;
+    }
+    
+    void unlink(Node<N, T> node) {
+        node.previous.next = node.next;
+        node.next.previous = node.previous;
+        node.previous = null;
+        node.next = null;
+        
+        weights[node.queue] -= node.weight;
+        weight -= node.weight;
+    }
+    
+    
+    @Override
+    public long weight() {
+        return weight;
+    }
+    
+    @Override
+    public long maximum() {
+        return maximum;
+    }
+    
+    @Override
+    public Statistics statistics() {
+        return new Statistics(hits.sum(), misses.sum(), evictions.sum(), loads.sum(), failures.sum(), loading.sum());
+    }
+    
+    
+    @Override
+    public ConcurrentMap<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    static class Node<N, T> {
+        
+        final Key<N, ? extends T> key;
+        final T value;
+        final int weight;
+        volatile boolean retired;
+        int queue;
+        Node<N, T> previous;
+        Node<N, T> next;
+        
+        
+        Node(Key<N, ? extends T> key, T value, int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+        
+    }
+    
+    
+    // A lossy ring buffer, reads are dropped when the buffer is full since they only serve as hints to the policy
+    static class ReadBuffer<N, T> {
+        
+        final AtomicReferenceArray<Node<N, T>> buffer = new AtomicReferenceArray<>(BUFFER);
+        final AtomicLong tail = new AtomicLong();
+        volatile long head;
+        
+        
+        boolean offer(Node<N, T> node) {
+            long tail = this.tail.get();
+            if (tail - head >= BUFFER) {
+                return false;
+            }
+            
+            if (this.tail.compareAndSet(tail, tail + 1)) {
+                buffer.lazySet((int) tail & (BUFFER - 1), node);
+            }
+            return tail - head < BUFFER - 1;
+        }
+        
+        void drain(ConcurrentBoundedTokenMap<N, T> map) {
+            long head = this.head;
+            long tail = this.tail.get();
+            for (; head < tail; head++) {
+                int index = (int) head & (BUFFER - 1);
+                var node = buffer.get(index);
+                if (node == null) {
+                    break;
+                }
+                
+                buffer.lazySet(index, null);
+                map.access(node);
+            }
+            this.head = head;
+        }
+        
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> implements ConcurrentMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return data.containsKey(key);
+        }
+        
+        @Override
+        public T get(Object key) {
+            return read(key);
+        }
+        
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            var node = node(key, Objects.requireNonNull(value));
+            var old = data.put(key, node);
+            if (old == null) {
+                added(node);
+                return null;
+                
+            } else {
+                replaced(old, node);
+                return old.value;
+            }
+        }
+        
+        @Override
+        public T putIfAbsent(Key<N, ? extends T> key, T value) {
+            var node = node(key, Objects.requireNonNull(value));
+            var old = data.putIfAbsent(key, node);
+            if (old == null) {
+                added(node);
+                return null;
+            }
+            return old.value;
+        }
+        
+        @Override
+        public T computeIfAbsent(Key<N, ? extends T> key, Function<? super Key<N, ? extends T>, ? extends T> function) {
+            var node = data.get(key);
+            if (node != null) {
+                return read(key);
+            }
+            
+            misses.increment();
+            var created = new boolean[1];
+            long start = System.nanoTime();
+            try {
+                node = data.computeIfAbsent(key, k -> {
+                    var value = function.apply(k);
+                    created[0] = value != null;
+                    return value == null ? null : node(k, value);
+                });
+                
+            } catch (RuntimeException | Error e) {
+                failures.increment();
+                loading.add(System.nanoTime() - start);
+                throw e;
+            }
+            
+            if (created[0]) {
+                loads.increment();
+                loading.add(System.nanoTime() - start);
+                added(node);
+                
+            } else if (node == null) {
+                failures.increment();
+                loading.add(System.nanoTime() - start);
+            }
+            
+            return node == null ? null : node.value;
+        }
+        
+        
+        @Override
+        public T replace(Key<N, ? extends T> key, T value) {
+            var node = node(key, Objects.requireNonNull(value));
+            var old = data.replace(key, node);
+            if (old != null) {
+                replaced(old, node);
+                return old.value;
+            }
+            return null;
+        }
+        
+        @Override
+        public boolean replace(Key<N, ? extends T> key, T old, T value) {
+            var existing = data.get(key);
+            if (existing == null || !existing.value.equals(old)) {
+                return false;
+            }
+            
+            var node = node(key, Objects.requireNonNull(value));
+            if (data.replace(key, existing, node)) {
+                replaced(existing, node);
+                return true;
+            }
+            return false;
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            var old = data.remove(key);
+            if (old != null) {
+                removed(old);
+                return old.value;
+            }
+            return null;
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            var existing = data.get(key);
+            if (existing != null && existing.value.equals(value) && data.remove(key, existing)) {
+                removed(existing);
+                return true;
+            }
+            return false;
+        }
+        
+        @Override
+        public void clear() {
+            for (var key : data.keySet()) {
+                remove(key);
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            return data.size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return data.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Node<N, T>> iterator = data.values().iterator();
+        private Node<N, T> last;
+        
+        
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            last = iterator.next();
+            Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(last.key, last.value);
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            
+            view.remove(last.key, last.value);
+            last = null;
+        }
+        
+    }
+    
+}
@@ -23,7 +23,9 @@
  */
 package com.karuslabs.commons.util.collections;
 
+import java.util.Map;
 import java.util.concurrent.*;
+import java.util.function.*;
 
 
 public interface ConcurrentClassMap<T> extends ClassMap<T> {
@@ -41,20 +43,176 @@ public interface ConcurrentClassMap<T> extends ClassMap<T> {
     }
     
     
+    public static <T> ConcurrentClassMap<T> copyOnWrite() {
+        return new CopyOnWriteClassMap<>();
+    }
+    
+    
+    public default void forEach(long threshold, BiConsumer<? super Class<? extends T>, ? super T> action) {
+        Bulk.forEach(map(), threshold, action);
+    }
+    
+    public default <U> U search(long threshold, BiFunction<? super Class<? extends T>, ? super T, ? extends U> function) {
+        return Bulk.search(map(), threshold, function);
+    }
+    
+    public default <U> U reduce(long threshold, BiFunction<? super Class<? extends T>, ? super T, ? extends U> transformer, BiFunction<? super U, ? super U, ? extends U> reducer) {
+        return Bulk.reduce(map(), threshold, transformer, reducer);
+    }
+    
+    
     @Override
     public ConcurrentMap<Class<? extends T>, T> map();
     
 }
 
 
-class ConcurrentHashClassMap<T> extends ConcurrentHashMap<Class<? extends T>, T> implements ConcurrentClassMap<T> {
+// Reports keys added through any of the operations of ConcurrentHashMap that insert, after they are visible. Whether
+// a key was absent is determined atomically from the previous value, or from which of the given functions are invoked
+@SuppressWarnings("serial")
+abstract class ObservedConcurrentHashMap<K, V> extends ConcurrentHashMap<K, V> {
+    
+    ObservedConcurrentHashMap() {}
+    
+    ObservedConcurrentHashMap(int capacity) {
+        super(capacity);
+    }
+    
+    
+    @Override
+    public V put(K key, V value) {
+        var old = super.put(key, value);
+        if (old == null) {
+            added();
+        }
+        return old;
+    }
+    
+    @Override
+    public void putAll(Map<? extends K, ? extends V> map) {
+        for (var entry : map.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+    
+    @Override
+    public V putIfAbsent(K key, V value) {
+        var old = super.putIfAbsent(key, value);
+        if (old == null) {
+            added();
+        }
+        return old;
+    }
+    
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> function) {
+        var value = get(key);
+        if (value != null) {
+            return value;
+        }
+        
+        var computed = new boolean[1];
+        value = super.computeIfAbsent(key, k -> {
+            var result = function.apply(k);
+            computed[0] = result != null;
+            return result;
+        });
+        
+        if (computed[0]) {
+            added();
+        }
+        return value;
+    }
+    
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> function) {
+        var absent = new boolean[1];
+        var value = super.compute(key, (k, old) -> {
+            absent[0] = old == null;
+            return function.apply(k, old);
+        });
+        
+        if (absent[0] && value != null) {
+            added();
+        }
+        return value;
+    }
+    
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> function) {
+        var present = new boolean[1];
+        var merged = super.merge(key, value, (old, given) -> {
+            present[0] = true;
+            return function.apply(old, given);
+        });
+        
+        if (!present[0]) {
+            added();
+        }
+        return merged;
+    }
+    
+    
+    abstract void added();
+    
+}
 
+class ConcurrentHashClassMap<T> extends ObservedConcurrentHashMap<Class<? extends T>, T> implements ConcurrentClassMap<T>, Lazy.Table {
+
+    private volatile Resolver<T> resolver;
+    private volatile Map<Class<?>, Lazy<?>> lazies;
+    
+    
     ConcurrentHashClassMap() {}
     
     ConcurrentHashClassMap(int capacity) {
         super(capacity);
     }
     
+    
+    @Override
+    public <U extends T> T getAssignable(Class<U> type) {
+        var resolver = this.resolver;
+        if (resolver == null) {
+            this.resolver = resolver = new Resolver<>(this, this);
+        }
+        return resolver.resolve(type);
+    }
+    
+    @Override
+    public <U extends T> void putLazy(Class<U> type, Supplier<? extends U> supplier) {
+        ConcurrentClassMap.super.putLazy(type, supplier);
+        added();
+    }
+    
+    @Override
+    void added() {
+        var resolver = this.resolver;
+        if (resolver != null) {
+            resolver.invalidate();
+        }
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        return Stats.simulate(keySet());
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        var lazies = this.lazies;
+        if (lazies == null && create) {
+            synchronized (this) {
+                if ((lazies = this.lazies) == null) {
+                    this.lazies = lazies = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return lazies;
+    }
+    
     @Override
     public ConcurrentMap<Class<? extends T>, T> map() {
         return this;
@@ -62,14 +220,28 @@ class ConcurrentHashClassMap<T> extends ConcurrentHashMap<Class<? extends T>, T>
     
 }
 
-class ConcurrentProxiedClassMap<T> implements ConcurrentClassMap<T> {
+class ConcurrentProxiedClassMap<T> implements ConcurrentClassMap<T>, Lazy.Table {
 
     private ConcurrentMap<Class<? extends T>, T> map;
+    private volatile Map<Class<?>, Lazy<?>> lazies;
     
     
     ConcurrentProxiedClassMap(ConcurrentMap<Class<? extends T>, T> map) {
         this.map = map;
     }
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        var lazies = this.lazies;
+        if (lazies == null && create) {
+            synchronized (this) {
+                if ((lazies = this.lazies) == null) {
+                    this.lazies = lazies = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return lazies;
+    }
 
     @Override
     public ConcurrentMap<Class<? extends T>, T> map() {
@@ -26,6 +26,7 @@ package com.karuslabs.commons.util.collections;
 import com.karuslabs.commons.util.collections.TokenMap.Key;
 
 import java.util.concurrent.*;
+import java.util.function.*;
 
 
 public interface ConcurrentTokenMap<N, T> extends TokenMap<N, T> {
@@ -43,6 +44,15 @@ public interface ConcurrentTokenMap<N, T> extends TokenMap<N, T> {
     }
     
     
+    public static <N, T> ConcurrentTokenMap<N, T> probing() {
+        return new ProbingTokenMap<>();
+    }
+    
+    public static <N, T> ConcurrentTokenMap<N, T> probing(int capacity) {
+        return new ProbingTokenMap<>(capacity);
+    }
+    
+    
     @Override
     public default <U extends T> boolean containsKey(N name, Class<U> type) {
         return map().containsKey(ThreadLocalKey.KEY.get().set(name, type));
@@ -60,21 +70,37 @@ public interface ConcurrentTokenMap<N, T> extends TokenMap<N, T> {
 
 
     @Override
-    public ConcurrentMap<Key<N, ? extends T>, T> map();
+    public default int addAndGet(N name, int delta) {
+        return (Integer) map().merge(TokenMap.key(name, (Class<T>) (Class<?>) int.class), (T) (Integer) delta, (old, value) -> (T) (Integer) ((Integer) old + (Integer) value));
+    }
     
-}
-
-
-class ThreadLocalKey extends ThreadLocal<Key<Object, Object>> {
+    @Override
+    public default long addAndGet(N name, long delta) {
+        return (Long) map().merge(TokenMap.key(name, (Class<T>) (Class<?>) long.class), (T) (Long) delta, (old, value) -> (T) (Long) ((Long) old + (Long) value));
+    }
     
-    static final ThreadLocalKey KEY = new ThreadLocalKey();
+    @Override
+    public default double addAndGet(N name, double delta) {
+        return (Double) map().merge(TokenMap.key(name, (Class<T>) (Class<?>) double.class), (T) (Double) delta, (old, value) -> (T) (Double) ((Double) old + (Double) value));
+    }
     
     
-    @Override
-    protected Key<Object, Object> initialValue() {
-        return TokenMap.key(null, null);
+    public default void forEach(long threshold, BiConsumer<? super Key<N, ? extends T>, ? super T> action) {
+        Bulk.forEach(map(), threshold, action);
+    }
+    
+    public default <U> U search(long threshold, BiFunction<? super Key<N, ? extends T>, ? super T, ? extends U> function) {
+        return Bulk.search(map(), threshold, function);
     }
     
+    public default <U> U reduce(long threshold, BiFunction<? super Key<N, ? extends T>, ? super T, ? extends U> transformer, BiFunction<? super U, ? super U, ? extends U> reducer) {
+        return Bulk.reduce(map(), threshold, transformer, reducer);
+    }
+    
+
+    @Override
+    public ConcurrentMap<Key<N, ? extends T>, T> map();
+    
 }
 
 
@@ -87,6 +113,12 @@ class ConcurrentHashTokenMap<N, T> extends ConcurrentHashMap<Key<N, ? extends T>
     }
     
     
+    @Override
+    public Stats stats() {
+        return Stats.simulate(keySet());
+    }
+    
+    
     @Override
     public ConcurrentMap<Key<N, ? extends T>, T> map() {
         return this;
@@ -0,0 +1,189 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.concurrent.locks.AutoLock;
+
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+
+// Readers see an immutable perfectly-hashed snapshot through a single volatile read,
+// while writers copy the snapshot, apply their change and publish a new snapshot under a lock
+class CopyOnWriteClassMap<T> implements ConcurrentClassMap<T>, Lazy.Table {
+    
+    volatile FrozenClassMap<T> snapshot = FrozenClassMap.of(Map.of());
+    final AutoLock lock = new AutoLock();
+    private volatile Map<Class<?>, Lazy<?>> lazies;
+    private final View view = new View();
+    
+    
+    <R> R write(Function<Map<Class<? extends T>, T>, R> operation) {
+        try (var mutex = lock.acquire()) {
+            var copy = new HashMap<Class<? extends T>, T>(snapshot.size() * 4 / 3 + 1);
+            snapshot.copy(copy);
+            
+            var result = operation.apply(copy);
+            snapshot = FrozenClassMap.of(copy);
+            return result;
+        }
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        return snapshot.stats();
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        var lazies = this.lazies;
+        if (lazies == null && create) {
+            synchronized (this) {
+                if ((lazies = this.lazies) == null) {
+                    this.lazies = lazies = new ConcurrentHashMap<>();
+                }
+            }
+        }
+        return lazies;
+    }
+    
+    @Override
+    public ConcurrentMap<Class<? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Class<? extends T>, T> implements ConcurrentMap<Class<? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return snapshot.containsKey(key);
+        }
+        
+        @Override
+        public T get(Object key) {
+            return snapshot.get(key);
+        }
+        
+        
+        @Override
+        public T put(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return write(map -> map.put(key, value));
+        }
+        
+        @Override
+        public void putAll(Map<? extends Class<? extends T>, ? extends T> map) {
+            write(copy -> {
+                copy.putAll(map);
+                return null;
+            });
+        }
+        
+        @Override
+        public T putIfAbsent(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            try (var mutex = lock.acquire()) {
+                var existing = snapshot.get(key);
+                return existing != null ? existing : write(map -> map.put(key, value));
+            }
+        }
+        
+        
+        @Override
+        public T computeIfAbsent(Class<? extends T> key, Function<? super Class<? extends T>, ? extends T> function) {
+            try (var mutex = lock.acquire()) {
+                var existing = snapshot.get(key);
+                return existing != null ? existing : write(map -> map.computeIfAbsent(key, function));
+            }
+        }
+        
+        @Override
+        public T compute(Class<? extends T> key, BiFunction<? super Class<? extends T>, ? super T, ? extends T> function) {
+            return write(map -> map.compute(key, function));
+        }
+        
+        @Override
+        public T merge(Class<? extends T> key, T value, BiFunction<? super T, ? super T, ? extends T> function) {
+            return write(map -> map.merge(key, value, function));
+        }
+        
+        
+        @Override
+        public T replace(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            try (var mutex = lock.acquire()) {
+                return snapshot.containsKey(key) ? write(map -> map.replace(key, value)) : null;
+            }
+        }
+
+        @Override
+        public boolean replace(Class<? extends T> key, T old, T value) {
+            Objects.requireNonNull(value);
+            try (var mutex = lock.acquire()) {
+                var existing = snapshot.get(key);
+                return existing != null && existing.equals(old) && write(map -> map.replace(key, old, value));
+            }
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            try (var mutex = lock.acquire()) {
+                return snapshot.containsKey(key) ? write(map -> map.remove(key)) : null;
+            }
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            try (var mutex = lock.acquire()) {
+                var existing = snapshot.get(key);
+                return existing != null && existing.equals(value) && write(map -> map.remove(key, value));
+            }
+        }
+        
+        @Override
+        public void clear() {
+            try (var mutex = lock.acquire()) {
+                snapshot = FrozenClassMap.of(Map.of());
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            return snapshot.size();
+        }
+        
+        @Override
+        public Set<Entry<Class<? extends T>, T>> entrySet() {
+            return snapshot.entrySet();
+        }
+        
+    }
+    
+}
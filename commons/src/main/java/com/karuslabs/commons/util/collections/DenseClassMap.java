@@ -0,0 +1,336 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+
+// Entries are appended to dense arrays in insertion order and located through a separate open-addressing
+// table of positions. Removed entries leave tombstones that are compacted when the dense arrays are full.
+class DenseClassMap<T> implements ClassMap<T>, Lazy.Table {
+    
+    static final int EMPTY = -1;
+    static final int DELETED = -2;
+    
+    
+    int[] indices;
+    Class<?>[] keys;
+    Object[] values;
+    int used;
+    int size;
+    private Map<Class<?>, Lazy<?>> lazies;
+    private final View view = new View();
+    
+    
+    DenseClassMap() {
+        this(8);
+    }
+    
+    DenseClassMap(int capacity) {
+        allocate(Math.max(capacity, 2));
+    }
+    
+    
+    private void allocate(int capacity) {
+        keys = new Class<?>[capacity];
+        values = new Object[capacity];
+        indices = new int[Integer.highestOneBit(capacity * 3 / 2 + 1) << 1];
+        Arrays.fill(indices, EMPTY);
+    }
+    
+    
+    static int hash(Object key) {
+        return System.identityHashCode(key) * 0x9E3779B9;
+    }
+    
+    int slot(Object key) {
+        int mask = indices.length - 1;
+        for (int slot = hash(key) & mask; ; slot = (slot + 1) & mask) {
+            int position = indices[slot];
+            if (position == EMPTY) {
+                return -1;
+                
+            } else if (position >= 0 && keys[position] == key) {
+                return slot;
+            }
+        }
+    }
+    
+    int position(Object key) {
+        int slot = slot(key);
+        return slot == -1 ? -1 : indices[slot];
+    }
+    
+    
+    T insert(Class<? extends T> key, T value) {
+        int position = position(Objects.requireNonNull(key));
+        if (position != -1) {
+            var old = (T) values[position];
+            values[position] = value;
+            return old;
+        }
+        
+        if (used == keys.length) {
+            rebuild(size >= keys.length / 2 ? keys.length * 2 : keys.length);
+        }
+        
+        int mask = indices.length - 1;
+        int slot = hash(key) & mask;
+        while (indices[slot] >= 0) {
+            slot = (slot + 1) & mask;
+        }
+        
+        keys[used] = key;
+        values[used] = value;
+        indices[slot] = used++;
+        size++;
+        return null;
+    }
+    
+    T delete(Object key) {
+        int slot = slot(key);
+        if (slot == -1) {
+            return null;
+        }
+        
+        int position = indices[slot];
+        indices[slot] = DELETED;
+        return removeAt(position);
+    }
+    
+    T removeAt(int position) {
+        var old = (T) values[position];
+        keys[position] = null;
+        values[position] = null;
+        size--;
+        return old;
+    }
+    
+    void rebuild(int capacity) {
+        var keys = this.keys;
+        var values = this.values;
+        int used = this.used;
+        
+        allocate(capacity);
+        this.used = 0;
+        this.size = 0;
+        
+        for (int i = 0; i < used; i++) {
+            if (keys[i] != null) {
+                insert((Class<? extends T>) keys[i], (T) values[i]);
+            }
+        }
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        int mask = indices.length - 1;
+        var probes = new int[1];
+        for (int position = 0; position < used; position++) {
+            if (keys[position] != null) {
+                int length = 1;
+                for (int slot = hash(keys[position]) & mask; indices[slot] != position; slot = (slot + 1) & mask) {
+                    length++;
+                }
+                probes = Stats.increment(probes, length, 1);
+            }
+        }
+        
+        // Runs are counted starting after an empty slot so that a run which wraps around is not split
+        int start = 0;
+        while (indices[start] != EMPTY) {
+            start++;
+        }
+        
+        var chains = new int[1];
+        int length = 0;
+        for (int i = 1; i <= indices.length; i++) {
+            if (indices[(start + i) & mask] != EMPTY) {
+                length++;
+                
+            } else if (length > 0) {
+                chains = Stats.increment(chains, length, 1);
+                length = 0;
+            }
+        }
+        
+        return new Stats(size, indices.length, chains, probes, 0);
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        if (lazies == null && create) {
+            lazies = new ConcurrentHashMap<>();
+        }
+        return lazies;
+    }
+    
+    @Override
+    public Map<Class<? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Class<? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return position(key) != -1;
+        }
+        
+        @Override
+        public T get(Object key) {
+            int position = position(key);
+            return position == -1 ? null : (T) values[position];
+        }
+        
+        @Override
+        public T put(Class<? extends T> key, T value) {
+            return insert(key, value);
+        }
+        
+        @Override
+        public T remove(Object key) {
+            return delete(key);
+        }
+        
+        @Override
+        public void clear() {
+            Arrays.fill(indices, EMPTY);
+            Arrays.fill(keys, 0, used, null);
+            Arrays.fill(values, 0, used, null);
+            used = 0;
+            size = 0;
+        }
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        
+        @Override
+        public void forEach(BiConsumer<? super Class<? extends T>, ? super T> consumer) {
+            var keys = DenseClassMap.this.keys;
+            var values = DenseClassMap.this.values;
+            for (int i = 0; i < used; i++) {
+                if (keys[i] != null) {
+                    consumer.accept((Class<? extends T>) keys[i], (T) values[i]);
+                }
+            }
+        }
+        
+        @Override
+        public Collection<T> values() {
+            return new AbstractCollection<>() {
+                @Override
+                public Iterator<T> iterator() {
+                    return new DenseIterator<>() {
+                        @Override
+                        T get(int position) {
+                            return (T) values[position];
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        
+        @Override
+        public Set<Entry<Class<? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Class<? extends T>, T>> iterator() {
+                    return new DenseIterator<>() {
+                        @Override
+                        Entry<Class<? extends T>, T> get(int position) {
+                            return new SimpleImmutableEntry<>((Class<? extends T>) keys[position], (T) values[position]);
+                        }
+                    };
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        
+    }
+    
+    abstract class DenseIterator<E> implements Iterator<E> {
+        
+        int position = skip(0);
+        int last = -1;
+        
+        
+        @Override
+        public boolean hasNext() {
+            return position < used;
+        }
+
+        @Override
+        public E next() {
+            if (position >= used) {
+                throw new NoSuchElementException();
+            }
+            
+            last = position;
+            position = skip(position + 1);
+            return get(last);
+        }
+        
+        @Override
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+            }
+            
+            indices[slot(keys[last])] = DELETED;
+            removeAt(last);
+            last = -1;
+        }
+        
+        abstract E get(int position);
+        
+        int skip(int position) {
+            while (position < used && keys[position] == null) {
+                position++;
+            }
+            return position;
+        }
+        
+    }
+    
+}
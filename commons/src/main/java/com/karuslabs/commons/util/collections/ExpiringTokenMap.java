@@ -0,0 +1,510 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+import com.karuslabs.commons.util.collections.TimerWheel.Node;
+import com.karuslabs.commons.util.concurrent.locks.AutoLock;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.function.*;
+
+
+public interface ExpiringTokenMap<N, T> extends ConcurrentTokenMap<N, T> {
+    
+    public static <N, T> ExpiringTokenMap<N, T> of() {
+        return of((key, value) -> {});
+    }
+    
+    public static <N, T> ExpiringTokenMap<N, T> of(BiConsumer<? super Key<N, ? extends T>, ? super T> listener) {
+        return new ConcurrentExpiringTokenMap<>(System::nanoTime, listener);
+    }
+    
+    
+    public default <U extends T> U put(N name, Class<U> type, U value, Duration duration) {
+        return put(TokenMap.key(name, type), value, duration);
+    }
+    
+    public <U extends T> U put(Key<N, U> key, U value, Duration duration);
+    
+    
+    public default <U extends T> U putIdle(N name, Class<U> type, U value, Duration duration) {
+        return putIdle(TokenMap.key(name, type), value, duration);
+    }
+    
+    public <U extends T> U putIdle(Key<N, U> key, U value, Duration duration);
+    
+    
+    public void expire();
+    
+}
+
+
+// Reads never return an expired value and never lock, while writes serialize on a lock and drive a hierarchical
+// timer wheel that removes expired entries. Idle entries are only rescheduled when their bucket is reached.
+// The size of the map may include expired entries that the wheel has not yet reached
+class ConcurrentExpiringTokenMap<N, T> implements ExpiringTokenMap<N, T> {
+    
+    final ConcurrentHashMap<Key<N, ? extends T>, Node<N, T>> entries = new ConcurrentHashMap<>();
+    final LongSupplier ticker;
+    final BiConsumer<? super Key<N, ? extends T>, ? super T> listener;
+    final AutoLock lock = new AutoLock();
+    final TimerWheel<N, T> wheel;
+    private final View view = new View();
+    
+    
+    ConcurrentExpiringTokenMap(LongSupplier ticker, BiConsumer<? super Key<N, ? extends T>, ? super T> listener) {
+        this.ticker = ticker;
+        this.listener = listener;
+        this.wheel = new TimerWheel<>(ticker.getAsLong());
+    }
+    
+    
+    Node<N, T> live(Object key) {
+        var node = entries.get(key);
+        if (node == null) {
+            return null;
+        }
+        
+        long now = ticker.getAsLong();
+        if (node.expired(now)) {
+            return null;
+        }
+        
+        node.touch(now);
+        return node;
+    }
+    
+    // Must be called while holding the lock, expired entries are added to the given list
+    T write(Key<N, ? extends T> key, Node<N, T> node, long now, List<Node<N, T>> expired) {
+        var old = node == null ? entries.remove(key) : entries.put(key, node);
+        if (node != null && node.timed) {
+            wheel.schedule(node);
+        }
+        
+        wheel.advance(now, entries, expired);
+        if (old == null) {
+            return null;
+        }
+        
+        wheel.unlink(old);
+        if (old.expired(now)) {
+            expired.add(old);
+            return null;
+        }
+        return old.value;
+    }
+    
+    void dispatch(List<Node<N, T>> expired) {
+        for (var node : expired) {
+            listener.accept(node.key, node.value);
+        }
+    }
+    
+    
+    @Override
+    public <U extends T> U put(Key<N, U> key, U value, Duration duration) {
+        return (U) view.put(key, value, nanos(duration), false);
+    }
+
+    @Override
+    public <U extends T> U putIdle(Key<N, U> key, U value, Duration duration) {
+        return (U) view.put(key, value, nanos(duration), true);
+    }
+    
+    // A duration of 0 denotes an entry that never expires and cannot be given explicitly
+    static long nanos(Duration duration) {
+        long nanos = duration.toNanos();
+        if (nanos <= 0) {
+            throw new IllegalArgumentException("Duration must be positive: " + duration);
+        }
+        return nanos;
+    }
+
+    @Override
+    public void expire() {
+        var expired = new ArrayList<Node<N, T>>();
+        try (var mutex = lock.acquire()) {
+            wheel.advance(ticker.getAsLong(), entries, expired);
+        }
+        dispatch(expired);
+    }
+    
+    
+    @Override
+    public ConcurrentMap<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> implements ConcurrentMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return live(key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            var node = live(key);
+            return node == null ? null : node.value;
+        }
+        
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            return put(key, value, 0, false);
+        }
+        
+        T put(Key<N, ? extends T> key, T value, long duration, boolean idle) {
+            Objects.requireNonNull(value);
+            var expired = new ArrayList<Node<N, T>>();
+            T old;
+            try (var mutex = lock.acquire()) {
+                long now = ticker.getAsLong();
+                old = write(key, new Node<>(key, value, now, duration, idle), now, expired);
+            }
+            dispatch(expired);
+            return old;
+        }
+        
+        @Override
+        public T putIfAbsent(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            var expired = new ArrayList<Node<N, T>>();
+            T old;
+            try (var mutex = lock.acquire()) {
+                long now = ticker.getAsLong();
+                var existing = entries.get(key);
+                if (existing != null && !existing.expired(now)) {
+                    existing.touch(now);
+                    return existing.value;
+                }
+                old = write(key, new Node<>(key, value, now, 0, false), now, expired);
+            }
+            dispatch(expired);
+            return old;
+        }
+        
+        
+        @Override
+        public T replace(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            var expired = new ArrayList<Node<N, T>>();
+            T old = null;
+            try (var mutex = lock.acquire()) {
+                long now = ticker.getAsLong();
+                var existing = entries.get(key);
+                if (existing != null && !existing.expired(now)) {
+                    old = write(key, existing.with(value, now), now, expired);
+                }
+            }
+            dispatch(expired);
+            return old;
+        }
+        
+        @Override
+        public boolean replace(Key<N, ? extends T> key, T old, T value) {
+            Objects.requireNonNull(value);
+            var expired = new ArrayList<Node<N, T>>();
+            boolean replaced = false;
+            try (var mutex = lock.acquire()) {
+                long now = ticker.getAsLong();
+                var existing = entries.get(key);
+                if (existing != null && !existing.expired(now) && existing.value.equals(old)) {
+                    write(key, existing.with(value, now), now, expired);
+                    replaced = true;
+                }
+            }
+            dispatch(expired);
+            return replaced;
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            if (!(key instanceof Key<?, ?>)) {
+                return null;
+            }
+            
+            var expired = new ArrayList<Node<N, T>>();
+            T old;
+            try (var mutex = lock.acquire()) {
+                old = write((Key<N, ? extends T>) key, null, ticker.getAsLong(), expired);
+            }
+            dispatch(expired);
+            return old;
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            if (!(key instanceof Key<?, ?>) || value == null) {
+                return false;
+            }
+            
+            var expired = new ArrayList<Node<N, T>>();
+            boolean removed = false;
+            try (var mutex = lock.acquire()) {
+                long now = ticker.getAsLong();
+                var existing = entries.get(key);
+                if (existing != null && !existing.expired(now) && existing.value.equals(value)) {
+                    write((Key<N, ? extends T>) key, null, now, expired);
+                    removed = true;
+                }
+            }
+            dispatch(expired);
+            return removed;
+        }
+        
+        @Override
+        public void clear() {
+            try (var mutex = lock.acquire()) {
+                entries.clear();
+                wheel.clear();
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            return entries.size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return entries.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Node<N, T>> iterator = entries.values().iterator();
+        private final long now = ticker.getAsLong();
+        private Node<N, T> next;
+        private Node<N, T> last;
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                var node = iterator.next();
+                if (!node.expired(now)) {
+                    next = node;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            last = next;
+            next = null;
+            Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(last.key, last.value);
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            
+            view.remove(last.key, last.value);
+            last = null;
+        }
+        
+    }
+    
+}
+
+
+// Each level holds 64 buckets that each span 64 times the duration of a bucket in the level below, from ~16.8ms
+// up to ~78 hours per bucket. Buckets are drained as time passes over them, expiring entries that are due and
+// rescheduling the remainder, typically into a lower level, so that the cost is proportional to the entries drained
+class TimerWheel<N, T> {
+    
+    static final int BUCKETS = 64;
+    static final int[] SHIFTS = {24, 30, 36, 42, 48};
+    
+    
+    final Node<N, T>[][] wheel = wheel(SHIFTS.length);
+    long time;
+    
+    
+    TimerWheel(long now) {
+        time = now;
+        for (var buckets : wheel) {
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets[i] = sentinel();
+            }
+        }
+    }
+    
+    @SuppressWarnings("unchecked")
+    static <N, T> Node<N, T>[][] wheel(int levels) {
+        return (Node<N, T>[][]) new Node<?, ?>[levels][BUCKETS];
+    }
+    
+    static <N, T> Node<N, T> sentinel() {
+        Node<N, T> sentinel = new Node<>(null, null, false, 0, 0);
+        sentinel.previous = sentinel;
+        sentinel.next = sentinel;
+        return sentinel;
+    }
+    
+    
+    void schedule(Node<N, T> node) {
+        long delay = Math.max(0, node.expiration - time);
+        int level = 0;
+        while (level < SHIFTS.length - 1 && delay >= (long) BUCKETS << SHIFTS[level]) {
+            level++;
+        }
+        
+        var sentinel = wheel[level][(int) ((node.expiration >> SHIFTS[level]) & (BUCKETS - 1))];
+        node.previous = sentinel.previous;
+        node.next = sentinel;
+        sentinel.previous.next = node;
+        sentinel.previous = node;
+    }
+    
+    void unlink(Node<N, T> node) {
+        if (node.previous != null) {
+            node.previous.next = node.next;
+            node.next.previous = node.previous;
+            node.previous = null;
+            node.next = null;
+        }
+    }
+    
+    
+    // Higher levels are drained first so that entries cascading into lower levels can expire in the same pass.
+    // The current bucket of the lowest level is always drained since it may hold entries that are already due
+    void advance(long now, Map<Key<N, ? extends T>, Node<N, T>> entries, List<Node<N, T>> expired) {
+        long previous = time;
+        time = now;
+        
+        for (int level = SHIFTS.length - 1; level >= 0; level--) {
+            long from = previous >> SHIFTS[level];
+            long to = now >> SHIFTS[level];
+            if (level > 0 && to - from <= 0) {
+                continue;
+            }
+            
+            long ticks = Math.min(to - from, BUCKETS - 1);
+            for (long tick = to - ticks; tick <= to; tick++) {
+                drain(wheel[level][(int) (tick & (BUCKETS - 1))], now, entries, expired);
+            }
+        }
+    }
+    
+    void drain(Node<N, T> sentinel, long now, Map<Key<N, ? extends T>, Node<N, T>> entries, List<Node<N, T>> expired) {
+        var node = sentinel.next;
+        sentinel.next = sentinel;
+        sentinel.previous = sentinel;
+        
+        while (node != sentinel) {
+            var next = node.next;
+            node.previous = null;
+            node.next = null;
+            
+            if (!node.expired(now)) {
+                schedule(node);
+                
+            } else if (entries.remove(node.key, node)) {
+                expired.add(node);
+            }
+            node = next;
+        }
+    }
+    
+    void clear() {
+        for (var buckets : wheel) {
+            for (var sentinel : buckets) {
+                sentinel.previous = sentinel;
+                sentinel.next = sentinel;
+            }
+        }
+    }
+    
+    
+    static class Node<N, T> {
+        
+        final Key<N, ? extends T> key;
+        final T value;
+        final boolean timed;
+        final long idle;
+        volatile long expiration;
+        Node<N, T> previous;
+        Node<N, T> next;
+        
+        
+        Node(Key<N, ? extends T> key, T value, long now, long duration, boolean idle) {
+            this(key, value, duration > 0, idle ? duration : 0, now + duration);
+        }
+        
+        Node(Key<N, ? extends T> key, T value, boolean timed, long idle, long expiration) {
+            this.key = key;
+            this.value = value;
+            this.timed = timed;
+            this.idle = idle;
+            this.expiration = expiration;
+        }
+        
+        
+        Node<N, T> with(T value, long now) {
+            return new Node<>(key, value, timed, idle, idle > 0 ? now + idle : expiration);
+        }
+        
+        boolean expired(long now) {
+            return timed && expiration - now <= 0;
+        }
+        
+        void touch(long now) {
+            if (idle > 0) {
+                expiration = now + idle;
+            }
+        }
+        
+    }
+        
+}
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+
+// A count-min sketch of 4-bit counters, sixteen to a long, that estimates how often an element was accessed.
+// The counters of an element are spread over four longs, and all counters are halved once the number of
+// increments reaches ten times the capacity so that the sketch favours recent accesses.
+//
+// The seeds, the reset mask and the layout of the counters are taken from the FrequencySketch of Caffeine
+// (https://github.com/ben-manes/caffeine) by Ben Manes, licensed under the Apache License, Version 2.0
+class FrequencySketch {
+    
+    static final long[] SEEDS = {0xC3A5C85C97CB3127L, 0xB492B66FBE98F273L, 0x9AE16A3B2F90404FL, 0xCBF29CE484222325L};
+    static final long RESET = 0x7777777777777777L;
+    static final int MAXIMUM = 1 << 20;
+    
+    
+    final long[] table;
+    final int sample;
+    int additions;
+    
+    
+    FrequencySketch(long capacity) {
+        int length = Integer.highestOneBit((int) Math.max(16, Math.min(capacity, MAXIMUM)) - 1) << 1;
+        table = new long[length];
+        sample = 10 * length;
+    }
+    
+    
+    int frequency(Object element) {
+        int hash = Hashes.mix(element.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int offset = (start + i) << 2;
+            frequency = Math.min(frequency, (int) ((table[index(hash, i)] >>> offset) & 0xF));
+        }
+        return frequency;
+    }
+    
+    void increment(Object element) {
+        int hash = Hashes.mix(element.hashCode());
+        int start = (hash & 3) << 2;
+        boolean incremented = false;
+        for (int i = 0; i < 4; i++) {
+            incremented |= increment(index(hash, i), start + i);
+        }
+        
+        if (incremented && ++additions == sample) {
+            reset();
+        }
+    }
+    
+    boolean increment(int index, int counter) {
+        int offset = counter << 2;
+        long mask = 0xFL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+    
+    void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET;
+        }
+        additions /= 2;
+    }
+    
+    int index(int hash, int i) {
+        long index = (hash + SEEDS[i]) * SEEDS[i];
+        index += index >>> 32;
+        return (int) index & (table.length - 1);
+    }
+    
+}
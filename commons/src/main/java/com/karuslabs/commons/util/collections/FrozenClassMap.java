@@ -0,0 +1,289 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+
+// Keys are distributed into buckets and each bucket is assigned a seed that maps its keys
+// to distinct free slots, or for a single key, the slot itself as a negative seed.
+// Classes that share an identity hash code cannot be separated and are kept in an overflow array.
+class FrozenClassMap<T> extends AbstractMap<Class<? extends T>, T> implements ClassMap<T> {
+    
+    private static final int ATTEMPTS = 1 << 20;
+    
+    
+    static <T> FrozenClassMap<T> of(Map<Class<? extends T>, ? extends T> map) {
+        var keys = new ArrayList<Class<? extends T>>(map.size());
+        var values = new ArrayList<T>(map.size());
+        var overflow = new ArrayList<Class<? extends T>>(0);
+        var overflowing = new ArrayList<T>(0);
+        
+        var hashes = new HashSet<Integer>(map.size());
+        for (var entry : map.entrySet()) {
+            var key = Objects.requireNonNull(entry.getKey());
+            if (hashes.add(System.identityHashCode(key))) {
+                keys.add(key);
+                values.add(entry.getValue());
+                
+            } else {
+                overflow.add(key);
+                overflowing.add(entry.getValue());
+            }
+        }
+        
+        int length = Math.max(1, keys.size());
+        var buckets = new ArrayList<List<Integer>>(length);
+        for (int i = 0; i < length; i++) {
+            buckets.add(new ArrayList<>(1));
+        }
+        
+        for (int i = 0; i < keys.size(); i++) {
+            buckets.get(bucket(System.identityHashCode(keys.get(i)), length)).add(i);
+        }
+        
+        var order = new ArrayList<Integer>(length);
+        for (int i = 0; i < length; i++) {
+            order.add(i);
+        }
+        order.sort((a, b) -> buckets.get(b).size() - buckets.get(a).size());
+        
+        var seeds = new int[length];
+        var table = new Class<?>[length];
+        var entries = new Object[length];
+        var slots = new int[length];
+        int free = 0;
+        
+        for (var index : order) {
+            var bucket = buckets.get(index);
+            if (bucket.size() > 1) {
+                seeds[index] = place(keys, bucket, table, slots);
+                
+            } else if (bucket.size() == 1) {
+                while (table[free] != null) {
+                    free++;
+                }
+                seeds[index] = ~free;
+                slots[0] = free;
+                
+            } else {
+                continue;
+            }
+            
+            for (int i = 0; i < bucket.size(); i++) {
+                int key = bucket.get(i);
+                table[slots[i]] = keys.get(key);
+                entries[slots[i]] = values.get(key);
+            }
+        }
+        
+        return new FrozenClassMap<>(seeds, table, entries, overflow.toArray(new Class<?>[0]), overflowing.toArray(), map.size());
+    }
+    
+    private static <T> int place(List<Class<? extends T>> keys, List<Integer> bucket, Class<?>[] table, int[] slots) {
+        next:
+        for (int seed = 1; seed < ATTEMPTS; seed++) {
+            for (int i = 0; i < bucket.size(); i++) {
+                int slot = slot(System.identityHashCode(keys.get(bucket.get(i))), seed, table.length);
+                if (table[slot] != null) {
+                    continue next;
+                }
+                
+                for (int j = 0; j < i; j++) {
+                    if (slots[j] == slot) {
+                        continue next;
+                    }
+                }
+                slots[i] = slot;
+            }
+            return seed;
+        }
+        
+        throw new IllegalStateException("Unable to find a perfect hash for " + bucket.size() + " keys");
+    }
+    
+    
+    static int bucket(int hash, int length) {
+        return reduce(Hashes.mix(hash), length);
+    }
+    
+    static int slot(int hash, int seed, int length) {
+        return reduce(Hashes.mix(hash + seed * 0x9E3779B9), length);
+    }
+    
+    static int reduce(int hash, int length) {
+        return (int) (((hash & 0xFFFFFFFFL) * length) >>> 32);
+    }
+    
+    
+    private final int[] seeds;
+    private final Class<?>[] keys;
+    private final Object[] values;
+    private final Class<?>[] overflow;
+    private final Object[] overflowing;
+    private final int size;
+    
+    
+    FrozenClassMap(int[] seeds, Class<?>[] keys, Object[] values, Class<?>[] overflow, Object[] overflowing, int size) {
+        this.seeds = seeds;
+        this.keys = keys;
+        this.values = values;
+        this.overflow = overflow;
+        this.overflowing = overflowing;
+        this.size = size;
+    }
+    
+    
+    int index(Object key) {
+        int hash = System.identityHashCode(key);
+        int seed = seeds[bucket(hash, seeds.length)];
+        return seed < 0 ? ~seed : slot(hash, seed, keys.length);
+    }
+    
+    
+    @Override
+    public boolean containsKey(Object key) {
+        return key != null && (keys[index(key)] == key || overflow(key) != -1);
+    }
+    
+    @Override
+    public T get(Object key) {
+        int index = index(key);
+        if (keys[index] == key) {
+            return (T) values[index];
+        }
+        
+        index = overflow(key);
+        return index != -1 ? (T) overflowing[index] : null;
+    }
+    
+    private int overflow(Object key) {
+        for (int i = 0; i < overflow.length; i++) {
+            if (overflow[i] == key) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    
+    void copy(Map<Class<? extends T>, T> map) {
+        for (int i = 0; i < keys.length; i++) {
+            if (keys[i] != null) {
+                map.put((Class<? extends T>) keys[i], (T) values[i]);
+            }
+        }
+        
+        for (int i = 0; i < overflow.length; i++) {
+            map.put((Class<? extends T>) overflow[i], (T) overflowing[i]);
+        }
+    }
+    
+    
+    // Keys in the table are found after a single probe, while keys in the overflow array are found after the
+    // table and the preceding overflowing keys are probed
+    @Override
+    public Stats stats() {
+        var chains = new int[2];
+        var probes = new int[2];
+        for (var key : keys) {
+            chains[key == null ? 0 : 1]++;
+        }
+        probes[1] = chains[1];
+        
+        if (overflow.length > 0) {
+            chains = Stats.increment(chains, overflow.length, 1);
+            for (int i = 0; i < overflow.length; i++) {
+                probes = Stats.increment(probes, i + 2, 1);
+            }
+        }
+        
+        return new Stats(size, keys.length, chains, probes, 0);
+    }
+    
+    
+    @Override
+    public int size() {
+        return size;
+    }
+    
+    @Override
+    public Set<Entry<Class<? extends T>, T>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<Class<? extends T>, T>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                return size;
+            }
+        };
+    }
+    
+    
+    class EntryIterator implements Iterator<Entry<Class<? extends T>, T>> {
+        
+        int index = skip(0);
+        
+        
+        @Override
+        public boolean hasNext() {
+            return index < keys.length + overflow.length;
+        }
+
+        @Override
+        public Entry<Class<? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            Entry<Class<? extends T>, T> entry;
+            if (index < keys.length) {
+                entry = new SimpleImmutableEntry<>((Class<? extends T>) keys[index], (T) values[index]);
+            } else {
+                entry = new SimpleImmutableEntry<>((Class<? extends T>) overflow[index - keys.length], (T) overflowing[index - keys.length]);
+            }
+            
+            index = skip(index + 1);
+            return entry;
+        }
+        
+        int skip(int index) {
+            while (index < keys.length && keys[index] == null) {
+                index++;
+            }
+            return index;
+        }
+        
+    }
+    
+    
+    @Override
+    public Map<Class<? extends T>, T> map() {
+        return this;
+    }
+    
+}
@@ -0,0 +1,332 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.google.common.primitives.Primitives;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+
+// Entries are grouped by name into small tables of types that are scanned linearly, so operations on
+// every entry under a name take time proportional to the number of entries under that name
+class GroupedTokenMap<N, T> implements TokenMap<N, T> {
+    
+    final Map<N, Group> groups = new HashMap<>();
+    int size;
+    private final View view = new View();
+    
+    
+    T find(Object name, Class<?> type) {
+        var group = groups.get(name);
+        if (group != null) {
+            int index = group.index(type);
+            return index < 0 ? null : (T) group.values[index];
+        }
+        return null;
+    }
+    
+    T insert(N name, Class<?> type, T value) {
+        var group = groups.get(name);
+        if (group == null) {
+            groups.put(name, group = new Group());
+        }
+        
+        int index = group.index(type);
+        if (index >= 0) {
+            var old = (T) group.values[index];
+            group.values[index] = value;
+            return old;
+        }
+        
+        group.add(type, value);
+        size++;
+        return null;
+    }
+    
+    T delete(Object name, Class<?> type) {
+        var group = groups.get(name);
+        if (group == null) {
+            return null;
+        }
+        
+        int index = group.index(type);
+        if (index < 0) {
+            return null;
+        }
+        
+        var old = (T) group.values[index];
+        group.remove(index);
+        size--;
+        if (group.size == 0) {
+            groups.remove(name);
+        }
+        return old;
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        var group = groups.get(name);
+        return group != null && group.index(type) >= 0;
+    }
+    
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return (U) find(name, type);
+    }
+    
+    @Override
+    public <U extends T> U get(Key<N, U> key) {
+        return (U) find(key.name, key.type);
+    }
+    
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        var item = find(name, type);
+        return item != null && Primitives.wrap(type).isAssignableFrom(item.getClass()) ? (U) item : value;
+    }
+    
+    
+    @Override
+    public <U extends T> U put(N name, Class<U> type, U value) {
+        return (U) insert(name, type, value);
+    }
+    
+    @Override
+    public <U extends T> U put(Key<N, U> key, U value) {
+        return (U) insert(key.name, key.type, value);
+    }
+    
+    
+    @Override
+    public Map<Class<? extends T>, T> entries(N name) {
+        var group = groups.get(name);
+        if (group == null) {
+            return new HashMap<>();
+        }
+        
+        var entries = new HashMap<Class<? extends T>, T>(group.size * 4 / 3 + 1);
+        for (int i = 0; i < group.size; i++) {
+            entries.put((Class<? extends T>) group.types[i], (T) group.values[i]);
+        }
+        return entries;
+    }
+    
+    @Override
+    public Set<Class<? extends T>> types(N name) {
+        var group = groups.get(name);
+        if (group == null) {
+            return new HashSet<>();
+        }
+        
+        var types = new HashSet<Class<? extends T>>(group.size * 4 / 3 + 1);
+        for (int i = 0; i < group.size; i++) {
+            types.add((Class<? extends T>) group.types[i]);
+        }
+        return types;
+    }
+    
+    @Override
+    public void removeAll(N name) {
+        var group = groups.remove(name);
+        if (group != null) {
+            size -= group.size;
+        }
+    }
+    
+    
+    @Override
+    public Map<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    static final class Group {
+        
+        Class<?>[] types = new Class<?>[2];
+        Object[] values = new Object[2];
+        int size;
+        
+        
+        int index(Class<?> type) {
+            for (int i = 0; i < size; i++) {
+                if (types[i] == type) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+        void add(Class<?> type, Object value) {
+            if (size == types.length) {
+                types = Arrays.copyOf(types, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            
+            types[size] = type;
+            values[size++] = value;
+        }
+        
+        // Moves the last entry into the removed slot
+        void remove(int index) {
+            size--;
+            types[index] = types[size];
+            values[index] = values[size];
+            types[size] = null;
+            values[size] = null;
+        }
+        
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                var group = groups.get(token.name);
+                return group != null && group.index(token.type) >= 0;
+            }
+            return false;
+        }
+        
+        @Override
+        public T get(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                return find(token.name, token.type);
+            }
+            return null;
+        }
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            return insert(key.name, key.type, value);
+        }
+        
+        @Override
+        public T remove(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                return delete(token.name, token.type);
+            }
+            return null;
+        }
+        
+        @Override
+        public void clear() {
+            groups.clear();
+            size = 0;
+        }
+        
+        
+        @Override
+        public int size() {
+            return size;
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return size;
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Entry<N, Group>> iterator = groups.entrySet().iterator();
+        private N name;
+        private Group group;
+        private int index;
+        private Group last;
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (group == null || index >= group.size) {
+                if (!iterator.hasNext()) {
+                    return false;
+                }
+                
+                var entry = iterator.next();
+                name = entry.getKey();
+                group = entry.getValue();
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            last = group;
+            var key = new Key<>(name, (Class<T>) group.types[index]);
+            Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(key, (T) group.values[index++]);
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            
+            // The last entry of the group is moved into the removed slot and so must be visited next. If hasNext()
+            // already advanced to the next group, the removed entry was the last in its group and nothing moves,
+            // an emptied group is then left in place since it can no longer be unlinked through the iterator
+            if (last == group) {
+                group.remove(--index);
+                if (group.size == 0) {
+                    iterator.remove();
+                }
+                
+            } else {
+                last.remove(last.size - 1);
+            }
+            
+            size--;
+            last = null;
+        }
+        
+    }
+    
+}
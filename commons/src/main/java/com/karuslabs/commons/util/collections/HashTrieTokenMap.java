@@ -0,0 +1,580 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.google.common.primitives.Primitives;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.*;
+
+
+// Entries are stored in an immutable hash array mapped trie. Writers copy the path to the changed entry and
+// swap in the new root, so a snapshot is the current root and remains unaffected by later writes
+class HashTrieTokenMap<N, T> implements PersistentTokenMap<N, T> {
+    
+    static final int BITS = 5;
+    static final int MASK = (1 << BITS) - 1;
+    static final int DEPTH = 10;
+    
+    
+    static Object find(Object node, Object name, Class<?> type) {
+        if (name == null || type == null) {
+            return null;
+        }
+        
+        int hash = ProbingTokenMap.hash(name, type);
+        for (int shift = 0; ; shift += BITS) {
+            if (node instanceof Branch) {
+                var branch = (Branch) node;
+                int bit = 1 << ((hash >>> shift) & MASK);
+                if ((branch.bitmap & bit) == 0) {
+                    return null;
+                }
+                node = branch.children[Integer.bitCount(branch.bitmap & (bit - 1))];
+                
+            } else if (node instanceof Leaf) {
+                var leaf = (Leaf) node;
+                return leaf.matches(hash, name, type) ? leaf.value : null;
+                
+            } else if (node instanceof Collision) {
+                var collision = (Collision) node;
+                int index = collision.indexOf(hash, name, type);
+                return index == -1 ? null : collision.leaves[index].value;
+                
+            } else {
+                return null;
+            }
+        }
+    }
+    
+    static Object insert(Object node, Leaf leaf, int shift) {
+        if (node == null) {
+            return leaf;
+            
+        } else if (node instanceof Branch) {
+            var branch = (Branch) node;
+            int bit = 1 << ((leaf.hash >>> shift) & MASK);
+            int index = Integer.bitCount(branch.bitmap & (bit - 1));
+            
+            if ((branch.bitmap & bit) == 0) {
+                var children = new Object[branch.children.length + 1];
+                System.arraycopy(branch.children, 0, children, 0, index);
+                System.arraycopy(branch.children, index, children, index + 1, branch.children.length - index);
+                children[index] = leaf;
+                return new Branch(branch.bitmap | bit, children);
+                
+            } else {
+                var children = branch.children.clone();
+                children[index] = insert(children[index], leaf, shift + BITS);
+                return new Branch(branch.bitmap, children);
+            }
+            
+        } else if (node instanceof Leaf) {
+            var existing = (Leaf) node;
+            if (existing.matches(leaf.hash, leaf.name, leaf.type)) {
+                return leaf;
+                
+            } else if (existing.hash == leaf.hash) {
+                return new Collision(leaf.hash, new Leaf[] {existing, leaf});
+                
+            } else {
+                return pair(existing, existing.hash, leaf, shift);
+            }
+            
+        } else {
+            var collision = (Collision) node;
+            if (collision.hash != leaf.hash) {
+                return pair(collision, collision.hash, leaf, shift);
+            }
+            
+            int index = collision.indexOf(leaf.hash, leaf.name, leaf.type);
+            var leaves = index == -1 ? Arrays.copyOf(collision.leaves, collision.leaves.length + 1) : collision.leaves.clone();
+            leaves[index == -1 ? leaves.length - 1 : index] = leaf;
+            return new Collision(leaf.hash, leaves);
+        }
+    }
+    
+    static Object pair(Object node, int hash, Leaf leaf, int shift) {
+        int first = (hash >>> shift) & MASK;
+        int second = (leaf.hash >>> shift) & MASK;
+        if (first == second) {
+            return new Branch(1 << first, new Object[] {pair(node, hash, leaf, shift + BITS)});
+            
+        } else {
+            return new Branch(1 << first | 1 << second, first < second ? new Object[] {node, leaf} : new Object[] {leaf, node});
+        }
+    }
+    
+    // Returns the same node if the mapping is absent, and null if the node no longer contains any mappings.
+    // Branches left with a single leaf or collision are collapsed into it.
+    static Object delete(Object node, int hash, Object name, Class<?> type, int shift) {
+        if (node instanceof Branch) {
+            var branch = (Branch) node;
+            int bit = 1 << ((hash >>> shift) & MASK);
+            if ((branch.bitmap & bit) == 0) {
+                return node;
+            }
+            
+            int index = Integer.bitCount(branch.bitmap & (bit - 1));
+            var child = branch.children[index];
+            var updated = delete(child, hash, name, type, shift + BITS);
+            if (updated == child) {
+                return node;
+                
+            } else if (updated == null) {
+                if (branch.children.length == 1) {
+                    return null;
+                }
+                
+                var children = new Object[branch.children.length - 1];
+                System.arraycopy(branch.children, 0, children, 0, index);
+                System.arraycopy(branch.children, index + 1, children, index, children.length - index);
+                return children.length == 1 && !(children[0] instanceof Branch) ? children[0] : new Branch(branch.bitmap & ~bit, children);
+                
+            } else if (branch.children.length == 1 && !(updated instanceof Branch)) {
+                return updated;
+                
+            } else {
+                var children = branch.children.clone();
+                children[index] = updated;
+                return new Branch(branch.bitmap, children);
+            }
+            
+        } else if (node instanceof Leaf) {
+            return ((Leaf) node).matches(hash, name, type) ? null : node;
+            
+        } else if (node instanceof Collision) {
+            var collision = (Collision) node;
+            int index = collision.indexOf(hash, name, type);
+            if (index == -1) {
+                return node;
+                
+            } else if (collision.leaves.length == 2) {
+                return collision.leaves[1 - index];
+            }
+            
+            var leaves = new Leaf[collision.leaves.length - 1];
+            System.arraycopy(collision.leaves, 0, leaves, 0, index);
+            System.arraycopy(collision.leaves, index + 1, leaves, index, leaves.length - index);
+            return new Collision(hash, leaves);
+            
+        } else {
+            return null;
+        }
+    }
+    
+    
+    final AtomicReference<Root> root = new AtomicReference<>(Root.EMPTY);
+    private final View view = new View();
+    
+    
+    // Applies the function to the current value until the resulting root is swapped in, a null result removes
+    // the mapping. Returns the new value if current is true and the previous value otherwise
+    Object update(Object name, Class<?> type, UnaryOperator<Object> function, boolean current) {
+        int hash = ProbingTokenMap.hash(name, type);
+        while (true) {
+            var root = this.root.get();
+            var old = find(root.trie, name, type);
+            var value = function.apply(old);
+            if (value == old) {
+                return value;
+            }
+            
+            var updated = value == null 
+                ? new Root(delete(root.trie, hash, name, type, 0), root.size - 1)
+                : new Root(insert(root.trie, new Leaf(hash, name, type, value), 0), old == null ? root.size + 1 : root.size);
+            
+            if (this.root.compareAndSet(root, updated)) {
+                return current ? value : old;
+            }
+        }
+    }
+    
+    
+    @Override
+    public TokenMap<N, T> snapshot() {
+        return new Snapshot<>(root.get());
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        return find(root.get().trie, name, type) != null;
+    }
+
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return (U) find(root.get().trie, name, type);
+    }
+
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        var item = find(root.get().trie, name, type);
+        return item != null && Primitives.wrap(type).isAssignableFrom(item.getClass()) ? (U) item : value;
+    }
+    
+    
+    @Override
+    public ConcurrentMap<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    static final class Root {
+        
+        static final Root EMPTY = new Root(null, 0);
+        
+        final Object trie;
+        final int size;
+        
+        Root(Object trie, int size) {
+            this.trie = trie;
+            this.size = size;
+        }
+        
+    }
+    
+    static final class Branch {
+        
+        final int bitmap;
+        final Object[] children;
+        
+        Branch(int bitmap, Object[] children) {
+            this.bitmap = bitmap;
+            this.children = children;
+        }
+        
+    }
+    
+    static final class Collision {
+        
+        final int hash;
+        final Leaf[] leaves;
+        
+        Collision(int hash, Leaf[] leaves) {
+            this.hash = hash;
+            this.leaves = leaves;
+        }
+        
+        int indexOf(int hash, Object name, Class<?> type) {
+            for (int i = 0; i < leaves.length; i++) {
+                if (leaves[i].matches(hash, name, type)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        
+    }
+    
+    static final class Leaf {
+        
+        final int hash;
+        final Object name;
+        final Class<?> type;
+        final Object value;
+        
+        Leaf(int hash, Object name, Class<?> type, Object value) {
+            this.hash = hash;
+            this.name = name;
+            this.type = type;
+            this.value = value;
+        }
+        
+        boolean matches(int hash, Object name, Class<?> type) {
+            return this.hash == hash && this.type == type && this.name.equals(name);
+        }
+        
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> implements ConcurrentMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                return (T) find(root.get().trie, token.name, token.type);
+            }
+            return null;
+        }
+        
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return (T) update(key.name, key.type, old -> value, false);
+        }
+        
+        @Override
+        public T putIfAbsent(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return (T) update(key.name, key.type, old -> old == null ? value : old, false);
+        }
+        
+        
+        @Override
+        public T computeIfAbsent(Key<N, ? extends T> key, Function<? super Key<N, ? extends T>, ? extends T> function) {
+            var value = get(key);
+            return value != null ? value : (T) update(key.name, key.type, old -> old == null ? function.apply(key) : old, true);
+        }
+        
+        @Override
+        public T computeIfPresent(Key<N, ? extends T> key, BiFunction<? super Key<N, ? extends T>, ? super T, ? extends T> function) {
+            return (T) update(key.name, key.type, old -> old == null ? null : function.apply(key, (T) old), true);
+        }
+        
+        @Override
+        public T compute(Key<N, ? extends T> key, BiFunction<? super Key<N, ? extends T>, ? super T, ? extends T> function) {
+            return (T) update(key.name, key.type, old -> function.apply(key, (T) old), true);
+        }
+        
+        @Override
+        public T merge(Key<N, ? extends T> key, T value, BiFunction<? super T, ? super T, ? extends T> function) {
+            Objects.requireNonNull(value);
+            return (T) update(key.name, key.type, old -> old == null ? value : function.apply((T) old, value), true);
+        }
+        
+        
+        @Override
+        public T replace(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return (T) update(key.name, key.type, old -> old == null ? null : value, false);
+        }
+        
+        @Override
+        public boolean replace(Key<N, ? extends T> key, T old, T value) {
+            Objects.requireNonNull(value);
+            return old != null && old.equals(update(key.name, key.type, existing -> old.equals(existing) ? value : existing, false));
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                return (T) update(token.name, token.type, old -> null, false);
+            }
+            return null;
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            if (!(key instanceof Key<?, ?>) || value == null) {
+                return false;
+            }
+            
+            var token = (Key<?, ?>) key;
+            return value.equals(update(token.name, token.type, existing -> value.equals(existing) ? null : existing, false));
+        }
+        
+        @Override
+        public void clear() {
+            root.set(Root.EMPTY);
+        }
+        
+        
+        @Override
+        public int size() {
+            return root.get().size;
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator<>(root.get().trie, view);
+                }
+
+                @Override
+                public int size() {
+                    return root.get().size;
+                }
+            };
+        }
+        
+    }
+    
+    
+    // Iterates over the trie of a single root, removals are forwarded to the given map if any
+    static class EntryIterator<N, T> implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Object[] nodes = new Object[DEPTH];
+        private final int[] indexes = new int[DEPTH];
+        private final Map<Key<N, ? extends T>, T> map;
+        private int depth = -1;
+        private Leaf next;
+        private Key<N, ? extends T> last;
+        
+        
+        EntryIterator(Object trie, Map<Key<N, ? extends T>, T> map) {
+            this.map = map;
+            if (trie != null) {
+                nodes[++depth] = trie;
+            }
+            advance();
+        }
+        
+        
+        void advance() {
+            next = null;
+            while (depth >= 0) {
+                var node = nodes[depth];
+                if (node instanceof Leaf) {
+                    next = (Leaf) node;
+                    depth--;
+                    return;
+                }
+                
+                Object[] children = node instanceof Branch ? ((Branch) node).children : ((Collision) node).leaves;
+                if (indexes[depth] < children.length) {
+                    nodes[depth + 1] = children[indexes[depth]++];
+                    indexes[++depth] = 0;
+                    
+                } else {
+                    depth--;
+                }
+            }
+        }
+        
+        
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            
+            var leaf = next;
+            advance();
+            
+            last = new Key<>((N) leaf.name, (Class<T>) leaf.type);
+            Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(last, (T) leaf.value);
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+                
+            } else if (map == null) {
+                throw new UnsupportedOperationException();
+            }
+            
+            map.remove(last);
+            last = null;
+        }
+        
+    }
+    
+    
+    // An immutable view of the trie of a single root
+    static class Snapshot<N, T> implements TokenMap<N, T> {
+        
+        final Root root;
+        private final Map<Key<N, ? extends T>, T> view;
+        
+        
+        Snapshot(Root root) {
+            this.root = root;
+            this.view = new AbstractMap<>() {
+                @Override
+                public boolean containsKey(Object key) {
+                    return get(key) != null;
+                }
+                
+                @Override
+                public T get(Object key) {
+                    if (key instanceof Key<?, ?>) {
+                        var token = (Key<?, ?>) key;
+                        return (T) find(root.trie, token.name, token.type);
+                    }
+                    return null;
+                }
+                
+                @Override
+                public int size() {
+                    return root.size;
+                }
+                
+                @Override
+                public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+                    return new AbstractSet<>() {
+                        @Override
+                        public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                            return new EntryIterator<>(root.trie, null);
+                        }
+
+                        @Override
+                        public int size() {
+                            return root.size;
+                        }
+                    };
+                }
+            };
+        }
+        
+        
+        @Override
+        public <U extends T> boolean containsKey(N name, Class<U> type) {
+            return find(root.trie, name, type) != null;
+        }
+
+        @Override
+        public <U extends T> U get(N name, Class<U> type) {
+            return (U) find(root.trie, name, type);
+        }
+
+        @Override
+        public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+            var item = find(root.trie, name, type);
+            return item != null && Primitives.wrap(type).isAssignableFrom(item.getClass()) ? (U) item : value;
+        }
+        
+        
+        @Override
+        public Map<Key<N, ? extends T>, T> map() {
+            return view;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,327 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongBinaryOperator;
+
+
+// Keys that were put or removed since the changes were last drained are recorded in an atomic bitset if indexed and
+// in a concurrent set otherwise. The values are left to the underlying map, a drained key that is no longer present
+// was removed. Recording and draining are thread-safe, so that an asynchronous save may drain the changes while the
+// map is modified, provided that the underlying map is thread-safe. A key is recorded after the underlying map is
+// modified, so a drained key is always read after its change
+class JournalingTokenMap<N, T> implements JournaledTokenMap<N, T> {
+    
+    static final LongBinaryOperator OR = (a, b) -> a | b;
+    
+    
+    final TokenMap<N, T> map;
+    volatile AtomicLongArray indexed = new AtomicLongArray(0);
+    final Set<Key<?, ?>> keys = ConcurrentHashMap.newKeySet();
+    private final View view = new View();
+    
+    
+    JournalingTokenMap(TokenMap<N, T> map) {
+        this.map = map;
+    }
+    
+    
+    void record(Key<?, ?> key) {
+        if (!mark(ArrayTokenMap.index(key)) && !keys.contains(key)) {
+            // Copied since the key may be a probe that is reused by the caller
+            keys.add(new Key<>(key.name, key.type));
+        }
+    }
+    
+    void record(N name, Class<?> type) {
+        record(ThreadLocalKey.KEY.get().set(name, type));
+    }
+    
+    // Bits set in a bitset that is concurrently replaced by grow(int) are set again in its replacement
+    boolean mark(int index) {
+        if (index < 0) {
+            return false;
+        }
+        
+        int word = index >>> 6;
+        long bit = 1L << index;
+        for (var bits = indexed; ; bits = indexed) {
+            if (word >= bits.length()) {
+                bits = grow(word);
+            }
+            
+            if ((bits.get(word) & bit) == 0) {
+                bits.accumulateAndGet(word, bit, OR);
+            }
+            
+            if (bits == indexed) {
+                return true;
+            }
+        }
+    }
+    
+    // The replacement is published before the bits are moved so that no bit set afterwards in the old bitset is lost
+    synchronized AtomicLongArray grow(int word) {
+        var bits = indexed;
+        if (word < bits.length()) {
+            return bits;
+        }
+        
+        var grown = new AtomicLongArray(Math.max(word, Registry.size() >>> 6) + 1);
+        indexed = grown;
+        for (int i = 0; i < bits.length(); i++) {
+            grown.accumulateAndGet(i, bits.getAndSet(i, 0), OR);
+        }
+        return grown;
+    }
+    
+    
+    @Override
+    public boolean dirty() {
+        if (!keys.isEmpty()) {
+            return true;
+        }
+        
+        var bits = indexed;
+        for (int i = 0; i < bits.length(); i++) {
+            if (bits.get(i) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    @Override
+    public Set<Key<N, ? extends T>> drainChanges() {
+        var changes = new HashSet<Key<N, ? extends T>>();
+        for (var iterator = keys.iterator(); iterator.hasNext();) {
+            changes.add((Key<N, ? extends T>) iterator.next());
+            iterator.remove();
+        }
+        
+        var bits = indexed;
+        for (int i = 0; i < bits.length(); i++) {
+            for (long word = bits.getAndSet(i, 0); word != 0; word &= word - 1) {
+                changes.add((Key<N, ? extends T>) Registry.key(i << 6 | Long.numberOfTrailingZeros(word)));
+            }
+        }
+        
+        return changes;
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        return map.containsKey(name, type);
+    }
+
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return map.get(name, type);
+    }
+
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        return map.getOrDefault(name, type, value);
+    }
+    
+    
+    @Override
+    public int getInt(N name, int value) {
+        return map.getInt(name, value);
+    }
+    
+    @Override
+    public long getLong(N name, long value) {
+        return map.getLong(name, value);
+    }
+    
+    @Override
+    public double getDouble(N name, double value) {
+        return map.getDouble(name, value);
+    }
+    
+    
+    @Override
+    public void putInt(N name, int value) {
+        map.putInt(name, value);
+        record(name, int.class);
+    }
+    
+    @Override
+    public void putLong(N name, long value) {
+        map.putLong(name, value);
+        record(name, long.class);
+    }
+    
+    @Override
+    public void putDouble(N name, double value) {
+        map.putDouble(name, value);
+        record(name, double.class);
+    }
+    
+    
+    @Override
+    public int addAndGet(N name, int delta) {
+        int value = map.addAndGet(name, delta);
+        record(name, int.class);
+        return value;
+    }
+    
+    @Override
+    public long addAndGet(N name, long delta) {
+        long value = map.addAndGet(name, delta);
+        record(name, long.class);
+        return value;
+    }
+    
+    @Override
+    public double addAndGet(N name, double delta) {
+        double value = map.addAndGet(name, delta);
+        record(name, double.class);
+        return value;
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        return map.stats();
+    }
+    
+    
+    @Override
+    public Map<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return map.map().containsKey(key);
+        }
+        
+        @Override
+        public T get(Object key) {
+            return map.map().get(key);
+        }
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            var old = map.map().put(key, value);
+            record(key);
+            return old;
+        }
+        
+        @Override
+        public T remove(Object key) {
+            if (!map.map().containsKey(key)) {
+                return null;
+            }
+            
+            var old = map.map().remove(key);
+            record((Key<?, ?>) key);
+            return old;
+        }
+        
+        @Override
+        public void clear() {
+            var cleared = new ArrayList<>(map.map().keySet());
+            map.map().clear();
+            for (var key : cleared) {
+                record(key);
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            return map.map().size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator(map.map().entrySet().iterator());
+                }
+
+                @Override
+                public int size() {
+                    return map.map().size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Entry<Key<N, ? extends T>, T>> iterator;
+        private Entry<Key<N, ? extends T>, T> last;
+        
+        
+        EntryIterator(Iterator<Entry<Key<N, ? extends T>, T>> iterator) {
+            this.iterator = iterator;
+        }
+        
+        
+        @Override
+        public boolean hasNext() {
+            return iterator.hasNext();
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            var entry = iterator.next();
+            last = entry;
+            return new SimpleEntry<>(entry) {
+                @Override
+                public T setValue(T value) {
+                    super.setValue(value);
+                    var old = entry.setValue(value);
+                    record(entry.getKey());
+                    return old;
+                }
+            };
+        }
+        
+        @Override
+        public void remove() {
+            iterator.remove();
+            record(last.getKey());
+        }
+        
+    }
+    
+}
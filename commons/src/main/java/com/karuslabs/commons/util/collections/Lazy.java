@@ -0,0 +1,122 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.function.Supplier;
+
+
+// Unresolved values are kept in a table of their ClassMap rather than in map(), so that a supplier is never observed
+// through map() and its views. A resolved value is published to map() and its table entry removed. Values put through
+// map() directly do not cancel a pending supplier
+final class Lazy<T> {
+    
+    // Implemented by the ClassMaps of this package that defer suppliers. The table is only allocated once a supplier
+    // is first deferred, and null is returned until then unless create is true
+    static interface Table {
+        
+        Map<Class<?>, Lazy<?>> lazies(boolean create);
+        
+    }
+    
+    
+    static <T> T get(ClassMap<T> owner, Map<Class<? extends T>, T> map, Class<?> key) {
+        var value = map.get(key);
+        return value != null ? value : resolve(owner, map, key);
+    }
+    
+    // Returns the resolved value if a supplier is pending for the key and null otherwise
+    static <T> T resolve(ClassMap<T> owner, Map<Class<? extends T>, T> map, Class<?> key) {
+        if (owner instanceof Table) {
+            var lazies = ((Table) owner).lazies(false);
+            var lazy = lazies == null || lazies.isEmpty() ? null : (Lazy<T>) lazies.get(key);
+            if (lazy != null) {
+                return lazy.publish(lazies, map, (Class<? extends T>) key);
+            }
+        }
+        return null;
+    }
+    
+    static boolean pending(ClassMap<?> owner, Class<?> key) {
+        if (owner instanceof Table) {
+            var lazies = ((Table) owner).lazies(false);
+            return lazies != null && lazies.containsKey(key);
+        }
+        return false;
+    }
+    
+    
+    static <T> void put(ClassMap<T> owner, Class<? extends T> key, Supplier<? extends T> supplier) {
+        Objects.requireNonNull(supplier);
+        if (!(owner instanceof Table)) {
+            owner.map().put(key, Objects.requireNonNull(supplier.get(), "Supplier returned null"));
+            return;
+        }
+        
+        // Held so that the supplier cannot be published before the previous value is removed
+        var lazy = new Lazy<T>(supplier);
+        synchronized (lazy) {
+            var previous = ((Table) owner).lazies(true).put(key, lazy);
+            if (previous != null) {
+                previous.cancel();
+            }
+            owner.map().remove(key);
+        }
+    }
+    
+    static void cancel(ClassMap<?> owner, Class<?> key) {
+        if (owner instanceof Table) {
+            var lazies = ((Table) owner).lazies(false);
+            var lazy = lazies == null || lazies.isEmpty() ? null : lazies.remove(key);
+            if (lazy != null) {
+                lazy.cancel();
+            }
+        }
+    }
+    
+    
+    private Supplier<? extends T> supplier;
+    
+    
+    Lazy(Supplier<? extends T> supplier) {
+        this.supplier = supplier;
+    }
+    
+    
+    synchronized T publish(Map<Class<?>, Lazy<?>> lazies, Map<Class<? extends T>, T> map, Class<? extends T> key) {
+        if (supplier != null) {
+            var value = Objects.requireNonNull(supplier.get(), "Supplier returned null");
+            supplier = null;
+            map.put(key, value);
+            lazies.remove(key, this);
+        }
+        return map.get(key);
+    }
+    
+    // Waits for a concurrent publication to complete so that it cannot overwrite a subsequent value
+    synchronized void cancel() {
+        supplier = null;
+    }
+    
+}
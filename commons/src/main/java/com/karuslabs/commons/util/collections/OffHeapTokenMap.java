@@ -0,0 +1,542 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.nio.*;
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+import static com.karuslabs.commons.util.collections.UnboxedClassMap.*;
+
+
+public interface OffHeapTokenMap<N, T> extends TokenMap<N, T>, AutoCloseable {
+    
+    @SafeVarargs
+    public static <N> Layout<N> layout(Key<N, ?>... keys) {
+        return new Layout<>(keys);
+    }
+    
+    
+    public boolean closed();
+    
+    @Override
+    public void close();
+    
+    
+    // Records of a layout are carved out of direct buffers that are shared by every map of the layout. Closing a map
+    // returns its record to the layout, which reuses the lowest free record first so that maps are packed into the
+    // first chunks. A chunk whose records are all free is dropped, its memory is then reclaimed once the chunk and the
+    // closed maps that refer to it are garbage collected, since direct buffers cannot be freed explicitly
+    public final class Layout<N> {
+        
+        static final int[] WIDTHS = {1, 1, 2, 2, 4, 8, 4, 8};
+        static final int CHUNK = 1 << 20;
+        
+        
+        final Key<N, ?>[] keys;
+        final int[] positions;
+        final int[] offsets;
+        final int[] kinds;
+        final int size;
+        final int records;
+        
+        private final List<ByteBuffer> chunks = new ArrayList<>();
+        private final BitSet free = new BitSet();
+        private int[] live = new int[1];
+        private int next;
+        
+        
+        Layout(Key<N, ?>[] keys) {
+            if (keys.length == 0) {
+                throw new IllegalArgumentException("Layout must contain at least one key");
+            }
+            
+            var sorted = keys.clone();
+            Arrays.sort(sorted, Comparator.comparingInt(key -> -WIDTHS[Math.max(0, slot(key.type))]));
+            
+            int maximum = -1;
+            for (var key : sorted) {
+                if (key.index < 0) {
+                    throw new IllegalArgumentException("Key must be indexed: " + key);
+                    
+                } else if (slot(key.type) == -1) {
+                    throw new IllegalArgumentException("Key must be of a primitive type: " + key);
+                }
+                maximum = Math.max(maximum, key.index);
+            }
+            
+            this.keys = sorted;
+            this.positions = new int[maximum + 1];
+            this.offsets = new int[sorted.length];
+            this.kinds = new int[sorted.length];
+            Arrays.fill(positions, -1);
+            
+            int offset = ((sorted.length + 63) / 64) * 8;
+            for (int i = 0; i < sorted.length; i++) {
+                if (positions[sorted[i].index] != -1) {
+                    throw new IllegalArgumentException("Duplicate key: " + sorted[i]);
+                }
+                
+                positions[sorted[i].index] = i;
+                kinds[i] = slot(sorted[i].type);
+                offsets[i] = offset;
+                offset += WIDTHS[kinds[i]];
+            }
+            
+            size = Math.max(8, (offset + 7) & ~7);
+            records = Math.max(1, CHUNK / size);
+        }
+        
+        
+        public <T> OffHeapTokenMap<N, T> allocate() {
+            int record;
+            ByteBuffer chunk;
+            synchronized (this) {
+                record = free.isEmpty() ? next++ : free.nextSetBit(0);
+                free.clear(record);
+                
+                int index = record / records;
+                if (index == chunks.size()) {
+                    chunks.add(null);
+                    if (index == live.length) {
+                        live = Arrays.copyOf(live, index * 2);
+                    }
+                }
+                
+                chunk = chunks.get(index);
+                if (chunk == null) {
+                    chunks.set(index, chunk = ByteBuffer.allocateDirect(records * size).order(ByteOrder.nativeOrder()));
+                }
+                live[index]++;
+            }
+            
+            int base = (record % records) * size;
+            for (int i = 0; i < offsets[0]; i += 8) {
+                chunk.putLong(base + i, 0);
+            }
+            
+            return new DirectTokenMap<>(this, record, chunk, base);
+        }
+        
+        synchronized void release(int record) {
+            free.set(record);
+            int index = record / records;
+            if (--live[index] == 0) {
+                chunks.set(index, null);
+            }
+        }
+        
+        
+        public int size() {
+            return size;
+        }
+        
+        public synchronized long reserved() {
+            long reserved = 0;
+            for (var chunk : chunks) {
+                if (chunk != null) {
+                    reserved += (long) records * size;
+                }
+            }
+            return reserved;
+        }
+        
+        public synchronized int allocated() {
+            return next - free.cardinality();
+        }
+        
+    }
+    
+}
+
+
+// Primitive values of the keys in the layout are stored in a fixed record of a direct buffer, preceded by a bitmap of
+// the keys present, while all other values, including values of the keys that are not of the wrapper type, are stored
+// in a token map that is created on demand
+class DirectTokenMap<N, T> implements OffHeapTokenMap<N, T> {
+    
+    final OffHeapTokenMap.Layout<N> layout;
+    final int record;
+    final ByteBuffer buffer;
+    final int base;
+    TokenMap<N, T> references;
+    Key<N, T> cached = TokenMap.key(null, null);
+    Key<N, Object> primitive = TokenMap.key(null, null);
+    boolean closed;
+    private final View view = new View();
+    
+    
+    DirectTokenMap(OffHeapTokenMap.Layout<N> layout, int record, ByteBuffer buffer, int base) {
+        this.layout = layout;
+        this.record = record;
+        this.buffer = buffer;
+        this.base = base;
+    }
+    
+    
+    int position(Key<?, ?> key) {
+        if (closed) {
+            throw new IllegalStateException("Map has been closed");
+        }
+        
+        int index = ArrayTokenMap.index(key);
+        return index >= 0 && index < layout.positions.length ? layout.positions[index] : -1;
+    }
+    
+    int position(N name, Class<?> type) {
+        return position(primitive.set(name, type));
+    }
+    
+    boolean present(int position) {
+        return (buffer.get(base + (position >>> 3)) & (1 << (position & 7))) != 0;
+    }
+    
+    void present(int position, boolean present) {
+        int index = base + (position >>> 3);
+        int bits = buffer.get(index);
+        buffer.put(index, (byte) (present ? bits | 1 << (position & 7) : bits & ~(1 << (position & 7))));
+    }
+    
+    long read(int position) {
+        int offset = base + layout.offsets[position];
+        switch (Layout.WIDTHS[layout.kinds[position]]) {
+            case 1:
+                return buffer.get(offset);
+            case 2:
+                return buffer.getShort(offset);
+            case 4:
+                return buffer.getInt(offset);
+            default:
+                return buffer.getLong(offset);
+        }
+    }
+    
+    void write(int position, long value) {
+        int offset = base + layout.offsets[position];
+        switch (Layout.WIDTHS[layout.kinds[position]]) {
+            case 1:
+                buffer.put(offset, (byte) value);
+                break;
+            case 2:
+                buffer.putShort(offset, (short) value);
+                break;
+            case 4:
+                buffer.putInt(offset, (int) value);
+                break;
+            default:
+                buffer.putLong(offset, value);
+        }
+        
+        if (!present(position)) {
+            present(position, true);
+            if (references != null) {
+                references.map().remove(layout.keys[position]);
+            }
+        }
+    }
+    
+    
+    T find(Key<?, ?> key) {
+        int position = position(key);
+        if (position >= 0 && present(position)) {
+            return (T) box(layout.kinds[position], read(position));
+        }
+        return references == null ? null : references.map().get(key);
+    }
+    
+    T insert(Key<N, ? extends T> key, T value) {
+        int position = position(key);
+        if (position == -1) {
+            return references().map().put(key, value);
+        }
+        
+        int kind = layout.kinds[position];
+        var old = present(position) ? (T) box(kind, read(position)) : (references == null ? null : references.map().get(key));
+        if (value != null && value.getClass() == WRAPPERS[kind]) {
+            write(position, unbox(kind, value));
+            
+        } else {
+            present(position, false);
+            references().map().put(key, value);
+        }
+        return old;
+    }
+    
+    T delete(Key<?, ?> key) {
+        int position = position(key);
+        if (position >= 0 && present(position)) {
+            present(position, false);
+            return (T) box(layout.kinds[position], read(position));
+        }
+        return references == null ? null : references.map().remove(key);
+    }
+    
+    TokenMap<N, T> references() {
+        if (references == null) {
+            references = TokenMap.of();
+        }
+        return references;
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        int position = position(cached.set(name, type));
+        return position >= 0 && present(position) || references != null && references.containsKey(name, type);
+    }
+    
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return (U) find(cached.set(name, type));
+    }
+    
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        return getOrDefault((Key<N, U>) cached.set(name, type), value);
+    }
+    
+    
+    @Override
+    public int getInt(N name, int value) {
+        int position = position(name, int.class);
+        return position >= 0 && present(position) ? (int) read(position) : OffHeapTokenMap.super.getInt(name, value);
+    }
+    
+    @Override
+    public long getLong(N name, long value) {
+        int position = position(name, long.class);
+        return position >= 0 && present(position) ? read(position) : OffHeapTokenMap.super.getLong(name, value);
+    }
+    
+    @Override
+    public double getDouble(N name, double value) {
+        int position = position(name, double.class);
+        return position >= 0 && present(position) ? Double.longBitsToDouble(read(position)) : OffHeapTokenMap.super.getDouble(name, value);
+    }
+    
+    
+    @Override
+    public void putInt(N name, int value) {
+        int position = position(name, int.class);
+        if (position >= 0) {
+            write(position, value);
+        } else {
+            OffHeapTokenMap.super.putInt(name, value);
+        }
+    }
+    
+    @Override
+    public void putLong(N name, long value) {
+        int position = position(name, long.class);
+        if (position >= 0) {
+            write(position, value);
+        } else {
+            OffHeapTokenMap.super.putLong(name, value);
+        }
+    }
+    
+    @Override
+    public void putDouble(N name, double value) {
+        int position = position(name, double.class);
+        if (position >= 0) {
+            write(position, Double.doubleToRawLongBits(value));
+        } else {
+            OffHeapTokenMap.super.putDouble(name, value);
+        }
+    }
+    
+    
+    @Override
+    public int addAndGet(N name, int delta) {
+        int position = position(name, int.class);
+        if (position >= 0 && present(position)) {
+            int value = (int) read(position) + delta;
+            write(position, value);
+            return value;
+        }
+        return OffHeapTokenMap.super.addAndGet(name, delta);
+    }
+    
+    @Override
+    public long addAndGet(N name, long delta) {
+        int position = position(name, long.class);
+        if (position >= 0 && present(position)) {
+            long value = read(position) + delta;
+            write(position, value);
+            return value;
+        }
+        return OffHeapTokenMap.super.addAndGet(name, delta);
+    }
+    
+    @Override
+    public double addAndGet(N name, double delta) {
+        int position = position(name, double.class);
+        if (position >= 0 && present(position)) {
+            double value = Double.longBitsToDouble(read(position)) + delta;
+            write(position, Double.doubleToRawLongBits(value));
+            return value;
+        }
+        return OffHeapTokenMap.super.addAndGet(name, delta);
+    }
+    
+    
+    @Override
+    public boolean closed() {
+        return closed;
+    }
+    
+    @Override
+    public void close() {
+        if (!closed) {
+            closed = true;
+            references = null;
+            layout.release(record);
+        }
+    }
+    
+    
+    @Override
+    public Map<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                int position = position(token);
+                return position >= 0 && present(position) || references != null && references.map().containsKey(key);
+            }
+            return false;
+        }
+        
+        @Override
+        public T get(Object key) {
+            return key instanceof Key<?, ?> ? find((Key<?, ?>) key) : null;
+        }
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            return insert(key, value);
+        }
+        
+        @Override
+        public T remove(Object key) {
+            return key instanceof Key<?, ?> ? delete((Key<?, ?>) key) : null;
+        }
+        
+        @Override
+        public void clear() {
+            position(cached);
+            for (int i = 0; i < layout.offsets[0]; i += 8) {
+                buffer.putLong(base + i, 0);
+            }
+            references = null;
+        }
+        
+        
+        @Override
+        public int size() {
+            position(cached);
+            int size = references == null ? 0 : references.map().size();
+            for (int i = 0; i < layout.offsets[0]; i += 8) {
+                size += Long.bitCount(buffer.getLong(base + i));
+            }
+            return size;
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Entry<Key<N, ? extends T>, T>> iterator = references == null ? Collections.emptyIterator() : references.map().entrySet().iterator();
+        private int position;
+        private int last = -1;
+        private boolean removable;
+        
+        
+        @Override
+        public boolean hasNext() {
+            position(cached);
+            while (position < layout.keys.length && !present(position)) {
+                position++;
+            }
+            return position < layout.keys.length || iterator.hasNext();
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            removable = true;
+            if (position < layout.keys.length) {
+                last = position++;
+                Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>((Key<N, ? extends T>) layout.keys[last], (T) box(layout.kinds[last], read(last)));
+                return entry;
+            }
+            
+            last = -1;
+            return iterator.next();
+        }
+        
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            
+            removable = false;
+            if (last >= 0) {
+                present(last, false);
+            } else {
+                iterator.remove();
+            }
+        }
+        
+    }
+    
+}
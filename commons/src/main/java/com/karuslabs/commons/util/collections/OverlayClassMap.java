@@ -0,0 +1,262 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// Entries are stored locally and lookups fall back to the parent on a miss. Hits from overlay ancestors are cached
+// until the generation of the parent, the sum of its own and its overlay ancestors' modifications, changes. The root,
+// the first ancestor that is not an overlay, does not track its modifications and is therefore never cached.
+// Since most overlays only override a few entries, if any, the local tables are allocated small on first write
+class OverlayClassMap<T> implements ClassMap<T>, Lazy.Table {
+    
+    private static final Object ROOT = new Object();
+    private static final int CAPACITY = 4;
+    
+    
+    final ClassMap<T> parent;
+    final ClassMap<T> root;
+    Map<Class<? extends T>, T> entries = Collections.emptyMap();
+    Map<Object, Object> cache = Collections.emptyMap();
+    long modifications;
+    long cached = -1;
+    private Map<Class<?>, Lazy<?>> lazies;
+    private final View view = new View();
+    
+    
+    OverlayClassMap(ClassMap<T> parent) {
+        this.parent = parent;
+        this.root = parent instanceof OverlayClassMap<?> ? ((OverlayClassMap<T>) parent).root : parent;
+    }
+    
+    
+    long generation() {
+        return parent instanceof OverlayClassMap<?> ? modifications + ((OverlayClassMap<?>) parent).generation() : modifications;
+    }
+    
+    T inherited(Object key) {
+        if (!(key instanceof Class<?>)) {
+            return null;
+            
+        } else if (!(parent instanceof OverlayClassMap<?>)) {
+            return Lazy.get(root, root.map(), (Class<?>) key);
+        }
+        
+        long generation = ((OverlayClassMap<?>) parent).generation();
+        if (generation != cached) {
+            cache = Collections.emptyMap();
+            cached = generation;
+        }
+        
+        var value = cache.get(key);
+        if (value == null) {
+            var overlaid = ((OverlayClassMap<T>) parent).overlaid((Class<?>) key);
+            value = overlaid == null ? ROOT : overlaid;
+            if (cache.isEmpty()) {
+                cache = new IdentityHashMap<>(CAPACITY);
+            }
+            cache.put(key, value);
+        }
+        
+        return value == ROOT ? Lazy.get(root, root.map(), (Class<?>) key) : (T) value;
+    }
+    
+    // Returns the value of the key in this overlay or its overlay ancestors, excluding the root
+    T overlaid(Class<?> key) {
+        var value = entries.get(key);
+        if (value != null) {
+            return value;
+            
+        } else if (pending(key)) {
+            return Lazy.resolve(this, view, key);
+            
+        } else {
+            return parent instanceof OverlayClassMap<?> ? ((OverlayClassMap<T>) parent).overlaid(key) : null;
+        }
+    }
+    
+    
+    boolean pending(Object key) {
+        return lazies != null && lazies.containsKey(key);
+    }
+    
+    // Whether a key of the parent is neither overridden nor shadowed by a pending lazy value of this overlay
+    boolean visible(Object key) {
+        return !entries.containsKey(key) && !pending(key);
+    }
+    
+    Map<Class<? extends T>, T> local() {
+        if (entries.isEmpty()) {
+            entries = new IdentityHashMap<>(CAPACITY);
+        }
+        return entries;
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        if (lazies == null && create) {
+            lazies = new ConcurrentHashMap<>();
+        }
+        return lazies;
+    }
+    
+    @Override
+    public Map<Class<? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    // A pending lazy value shadows the parent's value for its key
+    class View extends AbstractMap<Class<? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return entries.containsKey(key) || !pending(key) && inherited(key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            var value = entries.get(key);
+            return value != null || pending(key) ? value : inherited(key);
+        }
+        
+        
+        @Override
+        public T put(Class<? extends T> key, T value) {
+            modifications++;
+            var old = local().put(key, value);
+            return old != null ? old : inherited(key);
+        }
+        
+        @Override
+        public boolean replace(Class<? extends T> key, T old, T value) {
+            if (entries.containsKey(key) && Objects.equals(entries.get(key), old)) {
+                modifications++;
+                entries.put(key, value);
+                return true;
+            }
+            return false;
+        }
+        
+        @Override
+        public T remove(Object key) {
+            modifications++;
+            return entries.remove(key);
+        }
+        
+        @Override
+        public void clear() {
+            modifications++;
+            entries = Collections.emptyMap();
+        }
+        
+        
+        @Override
+        public int size() {
+            int size = entries.size();
+            for (var key : parent.map().keySet()) {
+                if (visible(key)) {
+                    size++;
+                }
+            }
+            return size;
+        }
+        
+        @Override
+        public Set<Entry<Class<? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Class<? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Class<? extends T>, T>> {
+        
+        private final Iterator<Entry<Class<? extends T>, T>> local = entries.entrySet().iterator();
+        private final Iterator<Entry<Class<? extends T>, T>> inherited = parent.map().entrySet().iterator();
+        private Entry<Class<? extends T>, T> next;
+        private boolean removable;
+        
+        
+        @Override
+        public boolean hasNext() {
+            if (next != null || local.hasNext()) {
+                return true;
+            }
+            
+            while (inherited.hasNext()) {
+                var entry = inherited.next();
+                if (visible(entry.getKey())) {
+                    next = new SimpleImmutableEntry<>(entry);
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        public Entry<Class<? extends T>, T> next() {
+            if (next == null && local.hasNext()) {
+                removable = true;
+                return local.next();
+            }
+            
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            var entry = next;
+            next = null;
+            removable = false;
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (!removable) {
+                throw new IllegalStateException();
+            }
+            
+            modifications++;
+            local.remove();
+            removable = false;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,506 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.google.common.primitives.Primitives;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+import com.karuslabs.commons.util.concurrent.locks.AutoLock;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.*;
+
+
+// Chains of nodes with immutable keys are probed directly with the name and type, so lookups need neither a probe key
+// nor any writes. Writers lock the stripe selected by the low bits of the hash, which always owns the bin of
+// the key since the table is never smaller than the number of stripes. Values are replaced in place while
+// removals publish rebuilt chains. A resize holds every stripe; readers retry if the table was replaced while
+// they were probing it
+class ProbingTokenMap<N, T> implements ConcurrentTokenMap<N, T> {
+    
+    static final int STRIPES = 16;
+    static final int MINIMUM_CAPACITY = STRIPES;
+    
+    
+    static int hash(Object name, Class<?> type) {
+        return Hashes.mix(31 * name.hashCode() + type.hashCode());
+    }
+    
+    static int capacity(int expected) {
+        int capacity = MINIMUM_CAPACITY;
+        while (capacity * 3 / 4 < expected) {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+    
+    
+    volatile AtomicReferenceArray<Node> table;
+    final Stripe[] stripes = new Stripe[STRIPES];
+    private final View view = new View();
+    
+    
+    ProbingTokenMap() {
+        this(MINIMUM_CAPACITY);
+    }
+    
+    ProbingTokenMap(int capacity) {
+        table = new AtomicReferenceArray<>(capacity(capacity));
+        for (int i = 0; i < STRIPES; i++) {
+            stripes[i] = new Stripe();
+        }
+    }
+    
+    
+    int size() {
+        int size = 0;
+        for (var stripe : stripes) {
+            size += stripe.size;
+        }
+        return size;
+    }
+    
+    
+    Object find(Object name, Class<?> type) {
+        return name == null || type == null ? null : find(hash(name, type), name, type);
+    }
+    
+    Object find(int hash, Object name, Class<?> type) {
+        while (true) {
+            var table = this.table;
+            var node = table.get(hash & (table.length() - 1));
+            while (node != null && (node.hash != hash || node.type != type || !node.name.equals(name))) {
+                node = node.next;
+            }
+            
+            if (table == this.table) {
+                return node == null ? null : node.value;
+            }
+        }
+    }
+    
+    // Must be called while holding the stripe of the key, a null value removes the mapping
+    void set(int hash, Stripe stripe, Object name, Class<?> type, Object value) {
+        var table = this.table;
+        int index = hash & (table.length() - 1);
+        var head = table.get(index);
+        
+        var target = head;
+        while (target != null && (target.hash != hash || target.type != type || !target.name.equals(name))) {
+            target = target.next;
+        }
+        
+        if (target != null && value != null) {
+            target.value = value;
+            return;
+        }
+        
+        var chain = head;
+        if (target != null) {
+            chain = target.next;
+            for (var node = head; node != target; node = node.next) {
+                chain = new Node(node.hash, node.name, node.type, node.value, chain);
+            }
+            stripe.size--;
+        }
+        
+        if (value != null) {
+            chain = new Node(hash, name, type, value, chain);
+            stripe.size++;
+        }
+        
+        table.set(index, chain);
+    }
+    
+    // Must be called without holding any stripe, since stripes are acquired in order. The total size is only
+    // summed once the stripe holds more than its share of the keys
+    void expand(Stripe stripe) {
+        if (stripe.size > table.length() / STRIPES * 3 / 4) {
+            resize();
+        }
+    }
+    
+    void resize() {
+        var table = this.table;
+        if (size() <= table.length() * 3 / 4) {
+            return;
+        }
+        
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+        }
+        
+        try {
+            if (table != this.table) {
+                return;
+            }
+            
+            var resized = new AtomicReferenceArray<Node>(table.length() << 1);
+            int mask = resized.length() - 1;
+            for (int i = 0; i < table.length(); i++) {
+                for (var node = table.get(i); node != null; node = node.next) {
+                    int index = node.hash & mask;
+                    resized.set(index, new Node(node.hash, node.name, node.type, node.value, resized.get(index)));
+                }
+            }
+            this.table = resized;
+            
+        } finally {
+            for (int i = STRIPES - 1; i >= 0; i--) {
+                stripes[i].lock.unlock();
+            }
+        }
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        return find(name, type) != null;
+    }
+
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        return (U) find(name, type);
+    }
+
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        var item = find(name, type);
+        return item != null && Primitives.wrap(type).isAssignableFrom(item.getClass()) ? (U) item : value;
+    }
+    
+    
+    @Override
+    public Stats stats() {
+        var table = this.table;
+        var chains = new int[1];
+        var probes = new int[1];
+        int size = 0;
+        for (int i = 0; i < table.length(); i++) {
+            int length = 0;
+            for (var node = table.get(i); node != null; node = node.next) {
+                probes = Stats.increment(probes, ++length, 1);
+            }
+            chains = Stats.increment(chains, length, 1);
+            size += length;
+        }
+        return new Stats(size, table.length(), chains, probes, 0);
+    }
+    
+    
+    @Override
+    public ConcurrentMap<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    static final class Stripe {
+        
+        final AutoLock lock = new AutoLock();
+        volatile int size;
+        
+    }
+    
+    static final class Node {
+        
+        final int hash;
+        final Object name;
+        final Class<?> type;
+        volatile Object value;
+        final Node next;
+        
+        Node(int hash, Object name, Class<?> type, Object value, Node next) {
+            this.hash = hash;
+            this.name = name;
+            this.type = type;
+            this.value = value;
+            this.next = next;
+        }
+        
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> implements ConcurrentMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<?, ?>) key;
+                return (T) find(token.name, token.type);
+            }
+            return null;
+        }
+        
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var old = (T) find(hash, key.name, key.type);
+                set(hash, stripe, key.name, key.type, value);
+                return old;
+                
+            } finally {
+                expand(stripe);
+            }
+        }
+        
+        @Override
+        public T putIfAbsent(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var old = (T) find(hash, key.name, key.type);
+                if (old == null) {
+                    set(hash, stripe, key.name, key.type, value);
+                }
+                return old;
+                
+            } finally {
+                expand(stripe);
+            }
+        }
+        
+        
+        @Override
+        public T computeIfAbsent(Key<N, ? extends T> key, Function<? super Key<N, ? extends T>, ? extends T> function) {
+            var value = get(key);
+            if (value != null) {
+                return value;
+            }
+            
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                value = (T) find(hash, key.name, key.type);
+                if (value == null && (value = function.apply(key)) != null) {
+                    set(hash, stripe, key.name, key.type, value);
+                }
+                return value;
+                
+            } finally {
+                expand(stripe);
+            }
+        }
+        
+        @Override
+        public T compute(Key<N, ? extends T> key, BiFunction<? super Key<N, ? extends T>, ? super T, ? extends T> function) {
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var value = function.apply(key, (T) find(hash, key.name, key.type));
+                set(hash, stripe, key.name, key.type, value);
+                return value;
+                
+            } finally {
+                expand(stripe);
+            }
+        }
+        
+        @Override
+        public T merge(Key<N, ? extends T> key, T value, BiFunction<? super T, ? super T, ? extends T> function) {
+            Objects.requireNonNull(value);
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var old = (T) find(hash, key.name, key.type);
+                var merged = old == null ? value : function.apply(old, value);
+                set(hash, stripe, key.name, key.type, merged);
+                return merged;
+                
+            } finally {
+                expand(stripe);
+            }
+        }
+        
+        
+        @Override
+        public T replace(Key<N, ? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var old = (T) find(hash, key.name, key.type);
+                if (old != null) {
+                    set(hash, stripe, key.name, key.type, value);
+                }
+                return old;
+            }
+        }
+        
+        @Override
+        public boolean replace(Key<N, ? extends T> key, T old, T value) {
+            Objects.requireNonNull(value);
+            int hash = hash(key.name, key.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var existing = find(hash, key.name, key.type);
+                if (existing != null && existing.equals(old)) {
+                    set(hash, stripe, key.name, key.type, value);
+                    return true;
+                }
+                return false;
+            }
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            if (!(key instanceof Key<?, ?>)) {
+                return null;
+            }
+            
+            var token = (Key<?, ?>) key;
+            int hash = hash(token.name, token.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var old = (T) find(hash, token.name, token.type);
+                if (old != null) {
+                    set(hash, stripe, token.name, token.type, null);
+                }
+                return old;
+            }
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            if (!(key instanceof Key<?, ?>) || value == null) {
+                return false;
+            }
+            
+            var token = (Key<?, ?>) key;
+            int hash = hash(token.name, token.type);
+            var stripe = stripes[hash & (STRIPES - 1)];
+            try (var mutex = stripe.lock.acquire()) {
+                var existing = find(hash, token.name, token.type);
+                if (value.equals(existing)) {
+                    set(hash, stripe, token.name, token.type, null);
+                    return true;
+                }
+                return false;
+            }
+        }
+        
+        @Override
+        public void clear() {
+            for (var stripe : stripes) {
+                stripe.lock.lock();
+            }
+            
+            try {
+                table = new AtomicReferenceArray<>(MINIMUM_CAPACITY);
+                for (var stripe : stripes) {
+                    stripe.size = 0;
+                }
+                
+            } finally {
+                for (int i = STRIPES - 1; i >= 0; i--) {
+                    stripes[i].lock.unlock();
+                }
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            return ProbingTokenMap.this.size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator(table);
+                }
+
+                @Override
+                public int size() {
+                    return ProbingTokenMap.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final AtomicReferenceArray<Node> table;
+        private int index;
+        private Node next;
+        private Key<N, ? extends T> last;
+        
+        
+        EntryIterator(AtomicReferenceArray<Node> table) {
+            this.table = table;
+        }
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && index < table.length()) {
+                next = table.get(index++);
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            var node = next;
+            next = node.next;
+            last = new Key<>((N) node.name, (Class<T>) node.type);
+            
+            Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(last, (T) node.value);
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            
+            view.remove(last);
+            last = null;
+        }
+        
+    }
+    
+}
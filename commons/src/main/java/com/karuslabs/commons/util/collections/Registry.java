@@ -0,0 +1,76 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// Indexed keys are deduplicated by name and type and given dense indexes in order of creation,
+// they are expected to be created once, typically as constants, and so registration is synchronized.
+// Indexes are never reused, so a registered key, its name and its type stay reachable for the lifetime
+// of this class. Keys must therefore not be indexed per entity or with the types of an unloadable plugin
+final class Registry {
+    
+    static final Map<Key<?, ?>, Key<?, ?>> KEYS = new ConcurrentHashMap<>();
+    static volatile Key<?, ?>[] indexes = new Key<?, ?>[0];
+    
+    
+    static <N, T> Key<N, T> indexed(N name, Class<T> type) {
+        Objects.requireNonNull(name);
+        Objects.requireNonNull(type);
+        
+        var probe = new Key<>(name, type);
+        var key = KEYS.get(probe);
+        if (key != null) {
+            return (Key<N, T>) key;
+        }
+        
+        synchronized (Registry.class) {
+            key = KEYS.get(probe);
+            if (key == null) {
+                var indexed = Arrays.copyOf(indexes, indexes.length + 1);
+                indexed[indexes.length] = key = new Key<>(name, type, indexes.length);
+                
+                KEYS.put(key, key);
+                indexes = indexed;
+            }
+            return (Key<N, T>) key;
+        }
+    }
+    
+    static Key<?, ?> key(int index) {
+        return indexes[index];
+    }
+    
+    static int size() {
+        return indexes.length;
+    }
+    
+    
+    private Registry() {}
+    
+}
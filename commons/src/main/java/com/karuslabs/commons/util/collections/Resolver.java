@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.karuslabs.commons.util.collections.Supertypes.SUPERTYPES;
+
+
+// Resolved keys are memoized per looked up class in a ClassValue, which is read without locking and does not keep the
+// looked up class reachable. A memo is only used while the generation in which it was resolved is current and is then
+// replaced in place, since removing the value of a ClassValue invalidates its cached values for all classes
+class Resolver<T> extends ClassValue<Resolver.Memo> {
+    
+    static final class Memo {
+        
+        volatile Resolution resolution;
+        
+    }
+    
+    static final class Resolution {
+        
+        final int generation;
+        final Class<?> key;
+        
+        Resolution(int generation, Class<?> key) {
+            this.generation = generation;
+            this.key = key;
+        }
+        
+    }
+    
+    
+    private final ClassMap<T> owner;
+    private final Map<Class<? extends T>, T> map;
+    private final AtomicInteger generation = new AtomicInteger();
+    
+    
+    Resolver(ClassMap<T> owner, Map<Class<? extends T>, T> map) {
+        this.owner = owner;
+        this.map = map;
+    }
+    
+    
+    T resolve(Class<?> type) {
+        var memo = get(type);
+        var resolution = memo.resolution;
+        if (resolution != null && resolution.generation == generation.get()) {
+            if (resolution.key == null) {
+                return null;
+            }
+            
+            var value = Lazy.get(owner, map, resolution.key);
+            if (value != null) {
+                return value;
+            }
+        }
+        
+        int generation = this.generation.get();
+        for (var supertype : SUPERTYPES.get(type)) {
+            var value = Lazy.get(owner, map, supertype);
+            if (value != null) {
+                memo.resolution = new Resolution(generation, supertype);
+                return value;
+            }
+        }
+        
+        memo.resolution = new Resolution(generation, null);
+        return null;
+    }
+    
+    @Override
+    protected Memo computeValue(Class<?> type) {
+        return new Memo();
+    }
+    
+    // Must be called after a key or lazy value was added. Removed keys need not invalidate the memo since they are detected
+    // when resolving, and a removal never makes a more specific key available
+    void invalidate() {
+        generation.incrementAndGet();
+    }
+    
+}
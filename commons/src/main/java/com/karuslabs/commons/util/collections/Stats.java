@@ -0,0 +1,170 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+
+// Histograms are indexed by length: chains()[n] is the number of buckets that hold n entries and probes()[n] is
+// the number of entries found after n probes. For open-addressed tables, chains are runs of consecutive occupied slots.
+// Implementations backed by a HashMap or ConcurrentHashMap report an estimate simulated from their keys, and others
+// that cannot inspect their table only report their size
+public final class Stats {
+    
+    static final int TREEIFY_THRESHOLD = 8;
+    static final int MIN_TREEIFY_CAPACITY = 64;
+    
+    
+    static Stats unavailable(int size) {
+        return new Stats(size, 0, new int[1], new int[1], 0, false, false);
+    }
+    
+    // Simulates how a HashMap or ConcurrentHashMap with default settings would distribute the keys, since their tables
+    // cannot be inspected. Both spread hashes the same way, but a map created with a larger capacity, or one that has
+    // since shrunk, has a table of a different size
+    static Stats simulate(Collection<?> keys) {
+        int size = keys.size();
+        int capacity = 16;
+        while (size > capacity * 3 / 4) {
+            capacity <<= 1;
+        }
+        
+        var buckets = new int[capacity];
+        for (var key : keys) {
+            int hash = Objects.hashCode(key);
+            buckets[(hash ^ (hash >>> 16)) & (capacity - 1)]++;
+        }
+        
+        var chains = new int[1];
+        var probes = new int[1];
+        int trees = 0;
+        for (var length : buckets) {
+            chains = increment(chains, length, 1);
+            for (int i = 1; i <= length; i++) {
+                probes = increment(probes, i, 1);
+            }
+            
+            if (length > TREEIFY_THRESHOLD && capacity >= MIN_TREEIFY_CAPACITY) {
+                trees++;
+            }
+        }
+        
+        return new Stats(size, capacity, chains, probes, trees, true, true);
+    }
+    
+    static int[] increment(int[] histogram, int index, int count) {
+        if (index >= histogram.length) {
+            histogram = Arrays.copyOf(histogram, Math.max(index + 1, histogram.length * 2));
+        }
+        histogram[index] += count;
+        return histogram;
+    }
+    
+    static int[] trim(int[] histogram) {
+        int length = histogram.length;
+        while (length > 1 && histogram[length - 1] == 0) {
+            length--;
+        }
+        return Arrays.copyOf(histogram, length);
+    }
+    
+    
+    private final int size;
+    private final int capacity;
+    private final int[] chains;
+    private final int[] probes;
+    private final int trees;
+    private final boolean available;
+    private final boolean estimated;
+    
+    
+    Stats(int size, int capacity, int[] chains, int[] probes, int trees) {
+        this(size, capacity, chains, probes, trees, true, false);
+    }
+    
+    private Stats(int size, int capacity, int[] chains, int[] probes, int trees, boolean available, boolean estimated) {
+        this.size = size;
+        this.capacity = capacity;
+        this.chains = trim(chains);
+        this.probes = trim(probes);
+        this.trees = trees;
+        this.available = available;
+        this.estimated = estimated;
+    }
+    
+    
+    public boolean available() {
+        return available;
+    }
+    
+    public boolean estimated() {
+        return estimated;
+    }
+    
+    
+    public int size() {
+        return size;
+    }
+    
+    public int capacity() {
+        return capacity;
+    }
+    
+    public int[] chains() {
+        return chains.clone();
+    }
+    
+    public int[] probes() {
+        return probes.clone();
+    }
+    
+    public int trees() {
+        return trees;
+    }
+    
+    
+    public int longest() {
+        return chains.length - 1;
+    }
+    
+    public double average() {
+        long total = 0;
+        for (int i = 1; i < probes.length; i++) {
+            total += (long) i * probes[i];
+        }
+        return size == 0 ? 0 : (double) total / size;
+    }
+    
+    
+    @Override
+    public String toString() {
+        if (!available) {
+            return "Stats[size: " + size + " unavailable]";
+        }
+        
+        return "Stats[size: " + size + " capacity: " + capacity + " chains: " + Arrays.toString(chains) 
+             + " probes: " + Arrays.toString(probes) + " trees: " + trees + (estimated ? " estimated]" : "]");
+    }
+    
+}
@@ -0,0 +1,59 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+
+class Supertypes extends ClassValue<Class<?>[]> {
+    
+    static final Supertypes SUPERTYPES = new Supertypes();
+    
+    
+    @Override
+    protected Class<?>[] computeValue(Class<?> type) {
+        var supertypes = new LinkedHashSet<Class<?>>();
+        var queue = new ArrayDeque<Class<?>>();
+        queue.add(type);
+        
+        while (!queue.isEmpty()) {
+            var current = queue.poll();
+            if (supertypes.add(current)) {
+                var parent = current.getSuperclass();
+                if (parent != null && parent != Object.class) {
+                    queue.add(parent);
+                }
+                Collections.addAll(queue, current.getInterfaces());
+            }
+        }
+        
+        // Object is the least specific supertype and is resolved last, even for interfaces
+        if (!type.isPrimitive()) {
+            supertypes.add(Object.class);
+        }
+        
+        return supertypes.toArray(new Class<?>[0]);
+    }
+    
+}
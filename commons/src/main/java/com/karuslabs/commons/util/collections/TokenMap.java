@@ -29,6 +29,7 @@ import com.karuslabs.annotations.ValueBased;
 import com.karuslabs.commons.util.collections.TokenMap.Key;
 
 import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
 
 import static com.karuslabs.commons.util.collections.TokenMap.key;
 
@@ -47,6 +48,22 @@ public interface TokenMap<N, T> {
         return new ProxiedTokenMap<>(map);
     }
     
+    public static <N, T> TokenMap<N, T> array() {
+        return new ArrayTokenMap<>();
+    }
+    
+    public static <N, T> TokenMap<N, T> grouped() {
+        return new GroupedTokenMap<>();
+    }
+    
+    public static <N, T> TokenMap<N, T> unboxed() {
+        return new UnboxedTokenMap<>();
+    }
+    
+    public static <N, T> TokenMap<N, T> typed() {
+        return new TypedTokenMap<>();
+    }
+    
     
     public <U extends T> boolean containsKey(N name, Class<U> type);
     
@@ -78,6 +95,22 @@ public interface TokenMap<N, T> {
     }
     
     
+    public default int getInt(N name, int value) {
+        Object item = get(name, (Class<T>) (Class<?>) int.class);
+        return item instanceof Integer ? (Integer) item : value;
+    }
+    
+    public default long getLong(N name, long value) {
+        Object item = get(name, (Class<T>) (Class<?>) long.class);
+        return item instanceof Long ? (Long) item : value;
+    }
+    
+    public default double getDouble(N name, double value) {
+        Object item = get(name, (Class<T>) (Class<?>) double.class);
+        return item instanceof Double ? (Double) item : value;
+    }
+    
+    
     public default <U extends T> U put(N name, Class<U> type, U value) {
         return put(key(name, type), value);
     }
@@ -87,6 +120,67 @@ public interface TokenMap<N, T> {
     }
     
     
+    public default void putInt(N name, int value) {
+        put(name, (Class<T>) (Class<?>) int.class, (T) (Integer) value);
+    }
+    
+    public default void putLong(N name, long value) {
+        put(name, (Class<T>) (Class<?>) long.class, (T) (Long) value);
+    }
+    
+    public default void putDouble(N name, double value) {
+        put(name, (Class<T>) (Class<?>) double.class, (T) (Double) value);
+    }
+    
+    
+    public default int addAndGet(N name, int delta) {
+        int value = getInt(name, 0) + delta;
+        putInt(name, value);
+        return value;
+    }
+    
+    public default long addAndGet(N name, long delta) {
+        long value = getLong(name, 0) + delta;
+        putLong(name, value);
+        return value;
+    }
+    
+    public default double addAndGet(N name, double delta) {
+        double value = getDouble(name, 0) + delta;
+        putDouble(name, value);
+        return value;
+    }
+    
+    
+    public default Map<Class<? extends T>, T> entries(N name) {
+        var entries = new HashMap<Class<? extends T>, T>();
+        for (var entry : map().entrySet()) {
+            if (entry.getKey().name.equals(name)) {
+                entries.put(entry.getKey().type, entry.getValue());
+            }
+        }
+        return entries;
+    }
+    
+    public default Set<Class<? extends T>> types(N name) {
+        return entries(name).keySet();
+    }
+    
+    public default void removeAll(N name) {
+        map().keySet().removeIf(key -> key.name.equals(name));
+    }
+    
+    
+    public default <U extends T> Map<N, U> view(Class<U> type) {
+        return new TypeView<>(this, type);
+    }
+    
+    
+    public default Stats stats() {
+        return Stats.unavailable(map().size());
+    }
+    
+    
     public Map<Key<N, ? extends T>, T> map();
     
     
@@ -94,16 +188,26 @@ public interface TokenMap<N, T> {
         return new Key<>(name, type);
     }
     
+    public static <N, T> Key<N, T> indexed(N name, Class<T> type) {
+        return Registry.indexed(name, type);
+    }
+    
     public @ValueBased final class Key<N, T> {
 
         N name;
         Class<? extends T> type;
         int hash;
+        final int index;
 
         Key(N name, Class<T> type) {
+            this(name, type, -1);
+        }
+        
+        Key(N name, Class<T> type, int index) {
             this.name = name;
             this.type = type;
             this.hash = hash();
+            this.index = index;
         }
 
         Key<N, ? extends T> set(N name, Class<? extends T> type) {
@@ -133,10 +237,7 @@ public interface TokenMap<N, T> {
         }
 
         int hash() {
-            int hash = 5;
-            hash = 53 * hash + Objects.hashCode(name);
-            hash = 53 * hash + Objects.hashCode(type);
-            return hash;
+            return Hashes.mix(31 * Objects.hashCode(name) + Objects.hashCode(type));
         }
 
         @Override
@@ -180,6 +281,12 @@ class HashTokenMap<N, T> extends HashMap<Key<N, ? extends T>, T> implements Toke
     }
 
     
+    @Override
+    public Stats stats() {
+        return Stats.simulate(keySet());
+    }
+    
+    
     @Override
     public Map<Key<N, ? extends T>, T> map() {
         return this;
@@ -222,3 +329,99 @@ class ProxiedTokenMap<N, T> implements TokenMap<N, T> {
     }
     
 }
+
+
+// Finds the entries of the type by scanning every entry of the map
+class TypeView<N, T, U extends T> extends AbstractMap<N, U> {
+    
+    final TokenMap<N, T> map;
+    final Class<U> type;
+    
+    
+    TypeView(TokenMap<N, T> map, Class<U> type) {
+        this.map = map;
+        this.type = type;
+    }
+    
+    
+    @Override
+    public boolean containsKey(Object name) {
+        return map.containsKey((N) name, type);
+    }
+    
+    @Override
+    public U get(Object name) {
+        return map.get((N) name, type);
+    }
+    
+    @Override
+    public U put(N name, U value) {
+        return map.put(name, type, value);
+    }
+    
+    @Override
+    public U remove(Object name) {
+        return (U) map.map().remove(key(name, type));
+    }
+    
+    
+    @Override
+    public Set<Entry<N, U>> entrySet() {
+        return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<N, U>> iterator() {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size() {
+                int size = 0;
+                for (var key : map.map().keySet()) {
+                    if (key.type == type) {
+                        size++;
+                    }
+                }
+                return size;
+            }
+        };
+    }
+    
+    class EntryIterator implements Iterator<Entry<N, U>> {
+        
+        private final Iterator<Entry<Key<N, ? extends T>, T>> iterator = map.map().entrySet().iterator();
+        private Entry<Key<N, ? extends T>, T> next;
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                var entry = iterator.next();
+                if (entry.getKey().type == type) {
+                    next = entry;
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<N, U> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            Entry<N, U> entry = new SimpleImmutableEntry<>(next.getKey().name, (U) next.getValue());
+            next = null;
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (next != null) {
+                throw new IllegalStateException();
+            }
+            iterator.remove();
+        }
+        
+    }
+    
+}
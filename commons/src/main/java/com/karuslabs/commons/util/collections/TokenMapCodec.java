@@ -0,0 +1,210 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.*;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import com.karuslabs.commons.util.Type;
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.io.IOException;
+import java.util.*;
+
+
+// Entries are streamed as the fields of a single object, each named "name:type" where type is the name of the
+// class of the key, i.e. "kills:int" or "title:java.lang.String". Only types with a Type other than TYPE are supported
+public final class TokenMapCodec {
+    
+    static final char SEPARATOR = ':';
+    static final Map<String, Class<?>> TYPES = new HashMap<>();
+    
+    static {
+        for (var type : Type.values()) {
+            if (type != Type.TYPE) {
+                TYPES.put(type.boxed.getName(), type.boxed);
+                TYPES.put(type.unboxed.getName(), type.unboxed);
+            }
+        }
+    }
+    
+    
+    public static void write(JsonGenerator generator, TokenMap<String, ?> map) throws IOException {
+        generator.writeStartObject();
+        for (var entry : map.map().entrySet()) {
+            var value = entry.getValue();
+            if (value == null) {
+                continue;
+            }
+            
+            var key = entry.getKey();
+            var type = Type.of(key.type);
+            if (type == Type.TYPE) {
+                throw new JsonGenerationException("Unsupported type: " + key.type.getName() + " for key: " + key.name, generator);
+                
+            } else if (!type.boxed.isInstance(value)) {
+                throw new JsonGenerationException("Invalid value: " + value.getClass().getName() + " for key: " + key.name + SEPARATOR + key.type.getName(), generator);
+            }
+            
+            generator.writeFieldName(key.name + SEPARATOR + key.type.getName());
+            writeValue(generator, type, value);
+        }
+        generator.writeEndObject();
+    }
+    
+    static void writeValue(JsonGenerator generator, Type type, Object value) throws IOException {
+        switch (type) {
+            case BOOLEAN:
+                generator.writeBoolean((Boolean) value);
+                break;
+            case CHAR:
+                generator.writeString(String.valueOf((char) (Character) value));
+                break;
+            case STRING:
+                generator.writeString((String) value);
+                break;
+            case BYTE:
+                generator.writeNumber((Byte) value);
+                break;
+            case SHORT:
+                generator.writeNumber((Short) value);
+                break;
+            case INT:
+                generator.writeNumber((Integer) value);
+                break;
+            case LONG:
+                generator.writeNumber((Long) value);
+                break;
+            case FLOAT:
+                generator.writeNumber((Float) value);
+                break;
+            default:
+                generator.writeNumber((Double) value);
+        }
+    }
+    
+    
+    public static <T extends TokenMap<String, Object>> T readInto(JsonParser parser, T map) throws IOException {
+        var token = parser.currentToken() == null ? parser.nextToken() : parser.currentToken();
+        if (token != JsonToken.START_OBJECT) {
+            throw new JsonParseException(parser, "Expected start of object, but was: " + token);
+        }
+        
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            var field = parser.getCurrentName();
+            int separator = field.lastIndexOf(SEPARATOR);
+            var type = separator == -1 ? null : TYPES.get(field.substring(separator + 1));
+            if (type == null) {
+                throw new JsonParseException(parser, "Invalid field: " + field + ", expected a name and supported type, i.e. name:int");
+            }
+            
+            parser.nextToken();
+            map.map().put(new Key<>(field.substring(0, separator), (Class<Object>) type), readValue(parser, Type.of(type)));
+        }
+        
+        return map;
+    }
+    
+    // Values must be of the matching JSON type, so that an object, array or null is never read as text
+    static Object readValue(JsonParser parser, Type type) throws IOException {
+        var token = parser.currentToken();
+        switch (type) {
+            case BOOLEAN:
+                expect(parser, token == JsonToken.VALUE_TRUE || token == JsonToken.VALUE_FALSE, type);
+                return parser.getBooleanValue();
+            case CHAR:
+                expect(parser, token == JsonToken.VALUE_STRING, type);
+                var text = parser.getText();
+                if (text.length() != 1) {
+                    throw new JsonParseException(parser, "Expected a single character, but was: " + text);
+                }
+                return text.charAt(0);
+            case STRING:
+                expect(parser, token == JsonToken.VALUE_STRING, type);
+                return parser.getText();
+            case BYTE:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT, type);
+                return parser.getByteValue();
+            case SHORT:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT, type);
+                return parser.getShortValue();
+            case INT:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT, type);
+                return parser.getIntValue();
+            case LONG:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT, type);
+                return parser.getLongValue();
+            case FLOAT:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT, type);
+                return parser.getFloatValue();
+            default:
+                expect(parser, token == JsonToken.VALUE_NUMBER_INT || token == JsonToken.VALUE_NUMBER_FLOAT, type);
+                return parser.getDoubleValue();
+        }
+    }
+    
+    static void expect(JsonParser parser, boolean valid, Type type) throws JsonParseException {
+        if (!valid) {
+            throw new JsonParseException(parser, "Expected a value of type: " + type + ", but was: " + parser.currentToken());
+        }
+    }
+    
+    
+    @SuppressWarnings("serial")
+    public static class Serializer extends StdSerializer<TokenMap<String, ?>> {
+        
+        public Serializer() {
+            super(TokenMap.class, false);
+        }
+        
+        
+        @Override
+        public void serialize(TokenMap<String, ?> map, JsonGenerator generator, SerializerProvider provider) throws IOException {
+            write(generator, map);
+        }
+        
+    }
+    
+    
+    @SuppressWarnings("serial")
+    public static class Deserializer extends StdDeserializer<TokenMap<String, Object>> {
+        
+        public Deserializer() {
+            super(TokenMap.class);
+        }
+        
+        
+        @Override
+        public TokenMap<String, Object> deserialize(JsonParser parser, DeserializationContext context) throws IOException {
+            return readInto(parser, TokenMap.of());
+        }
+        
+    }
+    
+    
+    private TokenMapCodec() {}
+    
+}
@@ -0,0 +1,321 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.Map.Entry;
+import java.util.concurrent.ConcurrentHashMap;
+
+
+// Wrapped values of primitive keys are stored unboxed in slots, while all other values are stored in an identity map
+class UnboxedClassMap<T> implements ClassMap<T>, Lazy.Table {
+    
+    static final Class<?>[] PRIMITIVES = {boolean.class, byte.class, short.class, char.class, int.class, long.class, float.class, double.class};
+    static final Class<?>[] WRAPPERS = {Boolean.class, Byte.class, Short.class, Character.class, Integer.class, Long.class, Float.class, Double.class};
+    
+    static final int BOOLEAN = 0;
+    static final int BYTE = 1;
+    static final int SHORT = 2;
+    static final int CHAR = 3;
+    static final int INT = 4;
+    static final int LONG = 5;
+    static final int FLOAT = 6;
+    static final int DOUBLE = 7;
+    
+    
+    static int slot(Object type) {
+        if (!(type instanceof Class<?>) || !((Class<?>) type).isPrimitive()) {
+            return -1;
+        }
+        
+        for (int i = 0; i < PRIMITIVES.length; i++) {
+            if (PRIMITIVES[i] == type) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    
+    final IdentityHashMap<Class<? extends T>, T> references = new IdentityHashMap<>();
+    final long[] slots = new long[PRIMITIVES.length];
+    int present;
+    private Map<Class<?>, Lazy<?>> lazies;
+    private final View view = new View();
+    
+    
+    @Override
+    public int getInt(Class<Integer> type, int value) {
+        if (type == int.class && (present & 1 << INT) != 0) {
+            return (int) slots[INT];
+        } else {
+            return ClassMap.super.getInt(type, value);
+        }
+    }
+    
+    @Override
+    public long getLong(Class<Long> type, long value) {
+        if (type == long.class && (present & 1 << LONG) != 0) {
+            return slots[LONG];
+        } else {
+            return ClassMap.super.getLong(type, value);
+        }
+    }
+    
+    @Override
+    public double getDouble(Class<Double> type, double value) {
+        if (type == double.class && (present & 1 << DOUBLE) != 0) {
+            return Double.longBitsToDouble(slots[DOUBLE]);
+        } else {
+            return ClassMap.super.getDouble(type, value);
+        }
+    }
+    
+    
+    @Override
+    public void putInt(Class<Integer> type, int value) {
+        if (type == int.class) {
+            Lazy.cancel(this, type);
+            if ((present & 1 << INT) == 0) {
+                references.remove(type);
+            }
+            slots[INT] = value;
+            present |= 1 << INT;
+        } else {
+            ClassMap.super.putInt(type, value);
+        }
+    }
+    
+    @Override
+    public void putLong(Class<Long> type, long value) {
+        if (type == long.class) {
+            Lazy.cancel(this, type);
+            if ((present & 1 << LONG) == 0) {
+                references.remove(type);
+            }
+            slots[LONG] = value;
+            present |= 1 << LONG;
+        } else {
+            ClassMap.super.putLong(type, value);
+        }
+    }
+    
+    @Override
+    public void putDouble(Class<Double> type, double value) {
+        if (type == double.class) {
+            Lazy.cancel(this, type);
+            if ((present & 1 << DOUBLE) == 0) {
+                references.remove(type);
+            }
+            slots[DOUBLE] = Double.doubleToRawLongBits(value);
+            present |= 1 << DOUBLE;
+        } else {
+            ClassMap.super.putDouble(type, value);
+        }
+    }
+    
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        if (lazies == null && create) {
+            lazies = new ConcurrentHashMap<>();
+        }
+        return lazies;
+    }
+    
+    @Override
+    public Map<Class<? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    Object box(int slot) {
+        return box(slot, slots[slot]);
+    }
+    
+    static Object box(int slot, long value) {
+        switch (slot) {
+            case BOOLEAN:
+                return value != 0;
+            case BYTE:
+                return (byte) value;
+            case SHORT:
+                return (short) value;
+            case CHAR:
+                return (char) value;
+            case INT:
+                return (int) value;
+            case LONG:
+                return value;
+            case FLOAT:
+                return Float.intBitsToFloat((int) value);
+            default:
+                return Double.longBitsToDouble(value);
+        }
+    }
+    
+    static long unbox(int slot, Object value) {
+        switch (slot) {
+            case BOOLEAN:
+                return (Boolean) value ? 1 : 0;
+            case BYTE:
+                return (Byte) value;
+            case SHORT:
+                return (Short) value;
+            case CHAR:
+                return (Character) value;
+            case INT:
+                return (Integer) value;
+            case LONG:
+                return (Long) value;
+            case FLOAT:
+                return Float.floatToRawIntBits((Float) value);
+            default:
+                return Double.doubleToRawLongBits((Double) value);
+        }
+    }
+    
+    
+    class View extends AbstractMap<Class<? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            int slot = slot(key);
+            return slot != -1 && (present & 1 << slot) != 0 || references.containsKey(key);
+        }
+        
+        @Override
+        public T get(Object key) {
+            int slot = slot(key);
+            return slot != -1 && (present & 1 << slot) != 0 ? (T) box(slot) : references.get(key);
+        }
+        
+        @Override
+        public T put(Class<? extends T> key, T value) {
+            int slot = slot(key);
+            if (slot == -1) {
+                return references.put(key, value);
+            }
+            
+            var old = (present & 1 << slot) != 0 ? (T) box(slot) : references.remove(key);
+            if (value != null && value.getClass() == WRAPPERS[slot]) {
+                slots[slot] = unbox(slot, value);
+                present |= 1 << slot;
+                
+            } else {
+                present &= ~(1 << slot);
+                references.put(key, value);
+            }
+            return old;
+        }
+        
+        @Override
+        public T remove(Object key) {
+            int slot = slot(key);
+            if (slot == -1 || (present & 1 << slot) == 0) {
+                return references.remove(key);
+            }
+            
+            present &= ~(1 << slot);
+            return (T) box(slot);
+        }
+        
+        @Override
+        public void clear() {
+            references.clear();
+            present = 0;
+        }
+        
+        @Override
+        public int size() {
+            return references.size() + Integer.bitCount(present);
+        }
+        
+        @Override
+        public Set<Entry<Class<? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Class<? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Class<? extends T>, T>> {
+        
+        private final Iterator<Entry<Class<? extends T>, T>> iterator = references.entrySet().iterator();
+        private int slot = next(0);
+        private int last = -1;
+        
+        
+        @Override
+        public boolean hasNext() {
+            return slot < PRIMITIVES.length || iterator.hasNext();
+        }
+
+        @Override
+        public Entry<Class<? extends T>, T> next() {
+            if (slot < PRIMITIVES.length) {
+                Entry<Class<? extends T>, T> entry = new AbstractMap.SimpleImmutableEntry<>((Class<? extends T>) PRIMITIVES[slot], (T) box(slot));
+                last = slot;
+                slot = next(slot + 1);
+                return entry;
+                
+            } else {
+                last = PRIMITIVES.length;
+                return iterator.next();
+            }
+        }
+        
+        @Override
+        public void remove() {
+            if (last == -1) {
+                throw new IllegalStateException();
+                
+            } else if (last < PRIMITIVES.length) {
+                present &= ~(1 << last);
+                
+            } else {
+                iterator.remove();
+            }
+            last = -1;
+        }
+        
+        int next(int slot) {
+            while (slot < PRIMITIVES.length && (present & 1 << slot) == 0) {
+                slot++;
+            }
+            return slot;
+        }
+        
+    }
+    
+}
@@ -0,0 +1,413 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.google.common.primitives.Primitives;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+
+import static com.karuslabs.commons.util.collections.UnboxedClassMap.*;
+
+
+// Wrapped values of primitive keys are stored unboxed in an open-addressed table of parallel name, primitive slot
+// and value arrays, while all other values are stored in a separate token map
+class UnboxedTokenMap<N, T> implements TokenMap<N, T> {
+    
+    static final int EMPTY = -1;
+    
+    
+    static int hash(Object name, int slot) {
+        return Hashes.mix(name.hashCode() * 31 + slot);
+    }
+    
+    
+    final TokenMap<N, T> references = TokenMap.of();
+    Object[] names = new Object[8];
+    byte[] slots = empty(8);
+    long[] values = new long[8];
+    int size;
+    private final View view = new View();
+    
+    
+    static byte[] empty(int capacity) {
+        var slots = new byte[capacity];
+        Arrays.fill(slots, (byte) EMPTY);
+        return slots;
+    }
+    
+    
+    int find(Object name, int slot) {
+        int mask = names.length - 1;
+        for (int i = hash(name, slot) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == slot && names[i].equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+    
+    // Returns the index of the entry, a newly claimed index is returned as a negative number, -(index + 1)
+    int claim(Object name, int slot) {
+        if ((size + 1) * 4 > names.length * 3) {
+            resize(names.length << 1);
+        }
+        
+        int mask = names.length - 1;
+        int i = hash(name, slot) & mask;
+        for (; slots[i] != EMPTY; i = (i + 1) & mask) {
+            if (slots[i] == slot && names[i].equals(name)) {
+                return i;
+            }
+        }
+        
+        names[i] = name;
+        slots[i] = (byte) slot;
+        size++;
+        references.map().remove(new Key<>(name, PRIMITIVES[slot]));
+        return -(i + 1);
+    }
+    
+    // Shifts subsequent entries of the probe sequence backwards so that no tombstones are needed
+    void removeAt(int index) {
+        int mask = names.length - 1;
+        int hole = index;
+        for (int i = (index + 1) & mask; slots[i] != EMPTY; i = (i + 1) & mask) {
+            int home = hash(names[i], slots[i]) & mask;
+            if (((i - home) & mask) >= ((i - hole) & mask)) {
+                names[hole] = names[i];
+                slots[hole] = slots[i];
+                values[hole] = values[i];
+                hole = i;
+            }
+        }
+        
+        names[hole] = null;
+        slots[hole] = EMPTY;
+        size--;
+    }
+    
+    void resize(int capacity) {
+        var names = this.names;
+        var slots = this.slots;
+        var values = this.values;
+        
+        this.names = new Object[capacity];
+        this.slots = empty(capacity);
+        this.values = new long[capacity];
+        
+        int mask = capacity - 1;
+        for (int i = 0; i < names.length; i++) {
+            if (slots[i] != EMPTY) {
+                int j = hash(names[i], slots[i]) & mask;
+                while (this.slots[j] != EMPTY) {
+                    j = (j + 1) & mask;
+                }
+                
+                this.names[j] = names[i];
+                this.slots[j] = slots[i];
+                this.values[j] = values[i];
+            }
+        }
+    }
+    
+    
+    @Override
+    public int getInt(N name, int value) {
+        int index = find(name, INT);
+        return index >= 0 ? (int) values[index] : TokenMap.super.getInt(name, value);
+    }
+    
+    @Override
+    public long getLong(N name, long value) {
+        int index = find(name, LONG);
+        return index >= 0 ? values[index] : TokenMap.super.getLong(name, value);
+    }
+    
+    @Override
+    public double getDouble(N name, double value) {
+        int index = find(name, DOUBLE);
+        return index >= 0 ? Double.longBitsToDouble(values[index]) : TokenMap.super.getDouble(name, value);
+    }
+    
+    
+    @Override
+    public void putInt(N name, int value) {
+        int index = claim(name, INT);
+        values[index < 0 ? -index - 1 : index] = value;
+    }
+    
+    @Override
+    public void putLong(N name, long value) {
+        int index = claim(name, LONG);
+        values[index < 0 ? -index - 1 : index] = value;
+    }
+    
+    @Override
+    public void putDouble(N name, double value) {
+        int index = claim(name, DOUBLE);
+        values[index < 0 ? -index - 1 : index] = Double.doubleToRawLongBits(value);
+    }
+    
+    
+    @Override
+    public int addAndGet(N name, int delta) {
+        int index = find(name, INT);
+        if (index >= 0) {
+            return (int) (values[index] = (int) values[index] + delta);
+        }
+        
+        int value = TokenMap.super.getInt(name, 0) + delta;
+        putInt(name, value);
+        return value;
+    }
+    
+    @Override
+    public long addAndGet(N name, long delta) {
+        int index = find(name, LONG);
+        if (index >= 0) {
+            return values[index] += delta;
+        }
+        
+        long value = TokenMap.super.getLong(name, 0) + delta;
+        putLong(name, value);
+        return value;
+    }
+    
+    @Override
+    public double addAndGet(N name, double delta) {
+        int index = find(name, DOUBLE);
+        if (index >= 0) {
+            double value = Double.longBitsToDouble(values[index]) + delta;
+            values[index] = Double.doubleToRawLongBits(value);
+            return value;
+        }
+        
+        double value = TokenMap.super.getDouble(name, 0) + delta;
+        putDouble(name, value);
+        return value;
+    }
+    
+    
+    @Override
+    public <U extends T> boolean containsKey(N name, Class<U> type) {
+        int slot = slot(type);
+        return slot != -1 && find(name, slot) >= 0 || references.containsKey(name, type);
+    }
+    
+    @Override
+    public <U extends T> U get(N name, Class<U> type) {
+        int slot = slot(type);
+        int index = slot == -1 ? -1 : find(name, slot);
+        return index >= 0 ? (U) box(slot, values[index]) : references.get(name, type);
+    }
+    
+    @Override
+    public <U extends T> U getOrDefault(N name, Class<U> type, U value) {
+        var item = get(name, type);
+        return item != null && Primitives.wrap(type).isAssignableFrom(item.getClass()) ? item : value;
+    }
+    
+    
+    @Override
+    public Map<Key<N, ? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    class View extends AbstractMap<Key<N, ? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<N, T>) key;
+                return UnboxedTokenMap.this.containsKey(token.name, token.type);
+            }
+            return false;
+        }
+        
+        @Override
+        public T get(Object key) {
+            if (key instanceof Key<?, ?>) {
+                var token = (Key<N, T>) key;
+                return UnboxedTokenMap.this.get(token.name, token.type);
+            }
+            return null;
+        }
+        
+        @Override
+        public T put(Key<N, ? extends T> key, T value) {
+            int slot = slot(key.type);
+            if (slot == -1) {
+                return references.map().put(key, value);
+            }
+            
+            int index = find(key.name, slot);
+            if (value != null && value.getClass() == WRAPPERS[slot]) {
+                if (index >= 0) {
+                    var old = (T) box(slot, values[index]);
+                    values[index] = unbox(slot, value);
+                    return old;
+                }
+                
+                var old = references.map().get(key);
+                index = -claim(key.name, slot) - 1;
+                values[index] = unbox(slot, value);
+                return old;
+                
+            } else if (index >= 0) {
+                var old = (T) box(slot, values[index]);
+                removeAt(index);
+                references.map().put(key, value);
+                return old;
+                
+            } else {
+                return references.map().put(key, value);
+            }
+        }
+        
+        @Override
+        public T remove(Object key) {
+            if (!(key instanceof Key<?, ?>)) {
+                return null;
+            }
+            
+            var token = (Key<?, ?>) key;
+            int slot = slot(token.type);
+            int index = slot == -1 ? -1 : find(token.name, slot);
+            if (index < 0) {
+                return references.map().remove(key);
+            }
+            
+            var old = (T) box(slot, values[index]);
+            removeAt(index);
+            return old;
+        }
+        
+        @Override
+        public void clear() {
+            references.map().clear();
+            names = new Object[8];
+            slots = empty(8);
+            values = new long[8];
+            size = 0;
+        }
+        
+        
+        @Override
+        public int size() {
+            return size + references.map().size();
+        }
+        
+        @Override
+        public Set<Entry<Key<N, ? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Key<N, ? extends T>, T>> iterator() {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    // Entries are iterated cyclically starting after an empty slot. Since removing an entry only shifts subsequent
+    // entries of the same run backwards, revisiting the removed slot is enough to not skip a shifted entry
+    class EntryIterator implements Iterator<Entry<Key<N, ? extends T>, T>> {
+        
+        private final Iterator<Entry<Key<N, ? extends T>, T>> iterator = references.map().entrySet().iterator();
+        private final int start;
+        private int offset = 1;
+        private int last;
+        private Key<N, ? extends T> key;
+        
+        
+        EntryIterator() {
+            int start = 0;
+            while (slots[start] != EMPTY) {
+                start++;
+            }
+            this.start = start;
+        }
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (offset <= names.length && slots[index(offset)] == EMPTY) {
+                offset++;
+            }
+            return offset <= names.length || iterator.hasNext();
+        }
+
+        @Override
+        public Entry<Key<N, ? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            if (offset <= names.length) {
+                last = offset;
+                int index = index(offset++);
+                key = new Key<>((N) names[index], (Class<T>) PRIMITIVES[slots[index]]);
+                Entry<Key<N, ? extends T>, T> entry = new SimpleImmutableEntry<>(key, (T) box(slots[index], values[index]));
+                return entry;
+                
+            } else {
+                last = 0;
+                var entry = iterator.next();
+                key = entry.getKey();
+                return entry;
+            }
+        }
+        
+        @Override
+        public void remove() {
+            if (key == null) {
+                throw new IllegalStateException();
+                
+            } else if (last > 0) {
+                removeAt(index(last));
+                offset = last;
+                
+            } else {
+                iterator.remove();
+            }
+            key = null;
+        }
+        
+        int index(int offset) {
+            return (start + offset) & (names.length - 1);
+        }
+        
+    }
+    
+}
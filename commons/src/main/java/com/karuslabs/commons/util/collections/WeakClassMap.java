@@ -0,0 +1,465 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.lang.ref.*;
+import java.util.*;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.Map.Entry;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.*;
+
+
+public interface WeakClassMap<T> extends ConcurrentClassMap<T> {
+    
+    public static <T> WeakClassMap<T> of() {
+        return new ConcurrentWeakClassMap<>();
+    }
+    
+    public static <T> WeakClassMap<T> of(int capacity) {
+        return new ConcurrentWeakClassMap<>(capacity);
+    }
+    
+    
+    public long reclaimed();
+    
+}
+
+
+// Values and pending lazy values are stored in the key itself through a ClassValue while the map only references its
+// keys weakly. A value that strongly references its key, i.e. an instance of the key, is therefore only reachable from
+// the key and does not prevent the key and its class loader from being reclaimed. The holder of a key is detached from
+// it once the key has neither a value nor a lazy value, at the cost of invalidating the cached holders of other keys
+class ConcurrentWeakClassMap<T> implements WeakClassMap<T>, Lazy.Table {
+    
+    static final int EXPUNGE_THRESHOLD = 16;
+    
+    
+    final ConcurrentHashMap<Object, Boolean> entries;
+    final ConcurrentHashMap<Object, Boolean> deferred = new ConcurrentHashMap<>();
+    final ClassValue<Holder<T>> values = new ClassValue<>() {
+        @Override
+        protected Holder<T> computeValue(Class<?> type) {
+            return new Holder<>();
+        }
+    };
+    final ReferenceQueue<Class<?>> queue = new ReferenceQueue<>();
+    final LongAdder reclaimed = new LongAdder();
+    private final Pending pending = new Pending();
+    private final View view = new View();
+    
+    
+    ConcurrentWeakClassMap() {
+        entries = new ConcurrentHashMap<>();
+    }
+    
+    ConcurrentWeakClassMap(int capacity) {
+        entries = new ConcurrentHashMap<>(capacity);
+    }
+    
+    
+    void expunge(int threshold) {
+        Reference<? extends Class<?>> reference;
+        for (int i = 0; i < threshold && (reference = queue.poll()) != null; i++) {
+            if (entries.remove(reference) != null) {
+                reclaimed.increment();
+                
+            } else {
+                deferred.remove(reference);
+            }
+        }
+    }
+    
+    
+    T find(Object key) {
+        expunge(EXPUNGE_THRESHOLD);
+        return key instanceof Class<?> && entries.containsKey(new Lookup((Class<?>) key)) ? values.get((Class<?>) key).value : null;
+    }
+    
+    // Applies the function to the current value of the key, a null result removes the mapping. Returns the new
+    // value if current is true and the previous value otherwise
+    T update(Class<?> key, UnaryOperator<T> function, boolean current) {
+        expunge(EXPUNGE_THRESHOLD);
+        while (true) {
+            var holder = values.get(key);
+            synchronized (holder) {
+                if (holder.detached) {
+                    continue;
+                }
+                
+                var old = holder.value;
+                var value = function.apply(old);
+                if (value != old) {
+                    holder.value = value;
+                    if (old == null) {
+                        entries.put(new WeakKey(key, queue), Boolean.TRUE);
+
+                    } else if (value == null) {
+                        entries.remove(new Lookup(key));
+                    }
+                }
+                
+                release(key, holder);
+                return current ? value : old;
+            }
+        }
+    }
+    
+    // Avoids creating a holder for an absent key
+    T update(Object key, UnaryOperator<T> function) {
+        if (key instanceof Class<?> && entries.containsKey(new Lookup((Class<?>) key))) {
+            return update((Class<?>) key, function, false);
+        }
+        return null;
+    }
+    
+    Lazy<?> defer(Class<?> key, UnaryOperator<Lazy<?>> function) {
+        expunge(EXPUNGE_THRESHOLD);
+        while (true) {
+            var holder = values.get(key);
+            synchronized (holder) {
+                if (holder.detached) {
+                    continue;
+                }
+                
+                var old = holder.lazy;
+                var lazy = function.apply(old);
+                if (lazy != old) {
+                    holder.lazy = lazy;
+                    if (old == null) {
+                        deferred.put(new WeakKey(key, queue), Boolean.TRUE);
+                        
+                    } else if (lazy == null) {
+                        deferred.remove(new Lookup(key));
+                    }
+                }
+                
+                release(key, holder);
+                return old;
+            }
+        }
+    }
+    
+    // Must be called while holding the lock of the holder
+    void release(Class<?> key, Holder<T> holder) {
+        if (holder.value == null && holder.lazy == null) {
+            holder.detached = true;
+            values.remove(key);
+        }
+    }
+    
+    
+    @Override
+    public long reclaimed() {
+        return reclaimed.sum();
+    }
+    
+    @Override
+    public Map<Class<?>, Lazy<?>> lazies(boolean create) {
+        return create || !deferred.isEmpty() ? pending : null;
+    }
+    
+    @Override
+    public ConcurrentMap<Class<? extends T>, T> map() {
+        return view;
+    }
+    
+    
+    static final class Holder<T> {
+        
+        volatile T value;
+        volatile Lazy<?> lazy;
+        boolean detached;
+        
+    }
+    
+    
+    // The lazy values of keys that are still reachable
+    class Pending extends AbstractMap<Class<?>, Lazy<?>> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return get(key) != null;
+        }
+        
+        @Override
+        public Lazy<?> get(Object key) {
+            expunge(EXPUNGE_THRESHOLD);
+            return key instanceof Class<?> && deferred.containsKey(new Lookup((Class<?>) key)) ? values.get((Class<?>) key).lazy : null;
+        }
+        
+        @Override
+        public Lazy<?> put(Class<?> key, Lazy<?> lazy) {
+            Objects.requireNonNull(lazy);
+            return defer(key, old -> lazy);
+        }
+        
+        @Override
+        public Lazy<?> remove(Object key) {
+            return key instanceof Class<?> && deferred.containsKey(new Lookup((Class<?>) key)) ? defer((Class<?>) key, old -> null) : null;
+        }
+        
+        @Override
+        public boolean remove(Object key, Object lazy) {
+            return lazy != null && key instanceof Class<?> && deferred.containsKey(new Lookup((Class<?>) key))
+                && defer((Class<?>) key, old -> old == lazy ? null : old) == lazy;
+        }
+        
+        @Override
+        public boolean isEmpty() {
+            return deferred.isEmpty();
+        }
+        
+        @Override
+        public int size() {
+            expunge(Integer.MAX_VALUE);
+            return deferred.size();
+        }
+        
+        @Override
+        public Set<Entry<Class<?>, Lazy<?>>> entrySet() {
+            expunge(EXPUNGE_THRESHOLD);
+            var entries = new HashSet<Entry<Class<?>, Lazy<?>>>();
+            for (var key : deferred.keySet()) {
+                var type = ((WeakKey) key).get();
+                var lazy = type == null ? null : values.get(type).lazy;
+                if (lazy != null) {
+                    entries.add(new SimpleImmutableEntry<>(type, lazy));
+                }
+            }
+            return entries;
+        }
+        
+    }
+    
+    
+    class View extends AbstractMap<Class<? extends T>, T> implements ConcurrentMap<Class<? extends T>, T> {
+        
+        @Override
+        public boolean containsKey(Object key) {
+            return find(key) != null;
+        }
+        
+        @Override
+        public T get(Object key) {
+            return find(key);
+        }
+        
+        
+        @Override
+        public T put(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return update(key, old -> value, false);
+        }
+        
+        @Override
+        public T putIfAbsent(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return update(key, old -> old == null ? value : old, false);
+        }
+        
+        
+        @Override
+        public T computeIfAbsent(Class<? extends T> key, Function<? super Class<? extends T>, ? extends T> function) {
+            var value = find(key);
+            return value != null ? value : update(key, old -> old == null ? function.apply(key) : old, true);
+        }
+        
+        @Override
+        public T computeIfPresent(Class<? extends T> key, BiFunction<? super Class<? extends T>, ? super T, ? extends T> function) {
+            return find(key) == null ? null : update(key, old -> old == null ? null : function.apply(key, old), true);
+        }
+        
+        @Override
+        public T compute(Class<? extends T> key, BiFunction<? super Class<? extends T>, ? super T, ? extends T> function) {
+            return update(key, old -> function.apply(key, old), true);
+        }
+        
+        @Override
+        public T merge(Class<? extends T> key, T value, BiFunction<? super T, ? super T, ? extends T> function) {
+            Objects.requireNonNull(value);
+            return update(key, old -> old == null ? value : function.apply(old, value), true);
+        }
+        
+        
+        @Override
+        public T replace(Class<? extends T> key, T value) {
+            Objects.requireNonNull(value);
+            return update(key, old -> old == null ? null : value);
+        }
+
+        @Override
+        public boolean replace(Class<? extends T> key, T old, T value) {
+            Objects.requireNonNull(value);
+            return old != null && old.equals(update(key, existing -> old.equals(existing) ? value : existing));
+        }
+        
+        
+        @Override
+        public T remove(Object key) {
+            return update(key, old -> null);
+        }
+        
+        @Override
+        public boolean remove(Object key, Object value) {
+            return value != null && value.equals(update(key, existing -> value.equals(existing) ? null : existing));
+        }
+        
+        @Override
+        public void clear() {
+            expunge(Integer.MAX_VALUE);
+            for (var key : entries.keySet()) {
+                var type = ((WeakKey) key).get();
+                if (type != null) {
+                    update(type, old -> null, false);
+                }
+            }
+        }
+        
+        
+        @Override
+        public int size() {
+            expunge(Integer.MAX_VALUE);
+            return entries.size();
+        }
+        
+        @Override
+        public Set<Entry<Class<? extends T>, T>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<Class<? extends T>, T>> iterator() {
+                    expunge(EXPUNGE_THRESHOLD);
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size() {
+                    return View.this.size();
+                }
+            };
+        }
+        
+    }
+    
+    class EntryIterator implements Iterator<Entry<Class<? extends T>, T>> {
+        
+        private final Iterator<Object> iterator = entries.keySet().iterator();
+        private Entry<Class<? extends T>, T> next;
+        private Class<?> last;
+        
+        
+        @Override
+        public boolean hasNext() {
+            while (next == null && iterator.hasNext()) {
+                var type = ((WeakKey) iterator.next()).get();
+                var value = type == null ? null : values.get(type).value;
+                if (value != null) {
+                    next = new SimpleImmutableEntry<>((Class<? extends T>) type, value);
+                }
+            }
+            return next != null;
+        }
+
+        @Override
+        public Entry<Class<? extends T>, T> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            
+            var entry = next;
+            last = entry.getKey();
+            next = null;
+            return entry;
+        }
+        
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            
+            update(last, old -> null, false);
+            last = null;
+        }
+        
+    }
+    
+
+    static final class WeakKey extends WeakReference<Class<?>> {
+        
+        private final int hash;
+        
+        
+        WeakKey(Class<?> type, ReferenceQueue<Class<?>> queue) {
+            super(type, queue);
+            hash = System.identityHashCode(type);
+        }
+        
+        
+        @Override
+        public boolean equals(Object other) {
+            if (this == other) {
+                return true;
+        
+            } else if (other instanceof WeakKey) {
+                var type = get();
+                return type != null && type == ((WeakKey) other).get();
+        
+            } else {
+                return false;
+            }
+        }
+        
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+        
+    }
+    
+    
+    static final class Lookup {
+        
+        private final Class<?> type;
+        
+        
+        Lookup(Class<?> type) {
+            this.type = type;
+        }
+        
+        
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof WeakKey && ((WeakKey) other).get() == type;
+        }
+        
+        @Override
+        public int hashCode() {
+            return System.identityHashCode(type);
+        }
+        
+    }
+    
+}
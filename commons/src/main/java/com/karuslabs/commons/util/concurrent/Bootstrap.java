@@ -0,0 +1,172 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.concurrent;
+
+import com.karuslabs.commons.util.collections.*;
+
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Function;
+
+
+public class Bootstrap<T> {
+    
+    public static <T> Bootstrap<T> of() {
+        return new Bootstrap<>();
+    }
+    
+    
+    private final Map<Class<? extends T>, Service<T>> services = new LinkedHashMap<>();
+    
+    
+    Bootstrap() {}
+    
+    
+    @SafeVarargs
+    public final <U extends T> Bootstrap<T> register(Class<U> type, Function<? super ClassMap<T>, ? extends U> factory, Class<? extends T>... dependencies) {
+        var declared = new ArrayList<Class<? extends T>>(dependencies.length);
+        for (var dependency : dependencies) {
+            declared.add(Objects.requireNonNull(dependency));
+        }
+        
+        if (services.putIfAbsent(type, new Service<>(type, factory, declared)) != null) {
+            throw new IllegalArgumentException("Service: " + type.getName() + " is already registered");
+        }
+        return this;
+    }
+    
+    
+    // Each factory only receives the services it declared as dependencies, so that an undeclared dependency is never
+    // visible regardless of the order in which services complete
+    public CompletableFuture<Result<T>> initialize(Executor executor) {
+        var services = new ConcurrentHashMap<Class<? extends T>, T>(this.services.size());
+        var timings = new ConcurrentHashMap<Class<? extends T>, Duration>(this.services.size());
+        var futures = new HashMap<Class<? extends T>, CompletableFuture<?>>(this.services.size());
+        
+        for (var service : sort()) {
+            var dependencies = new CompletableFuture<?>[service.dependencies.size()];
+            for (int i = 0; i < dependencies.length; i++) {
+                dependencies[i] = futures.get(service.dependencies.get(i));
+            }
+            
+            futures.put(service.type, CompletableFuture.allOf(dependencies).thenRunAsync(() -> {
+                var declared = new HashMap<Class<? extends T>, T>(service.dependencies.size());
+                for (var dependency : service.dependencies) {
+                    declared.put(dependency, services.get(dependency));
+                }
+                var view = ClassMap.copyOf(declared);
+                
+                long start = System.nanoTime();
+                var value = Objects.requireNonNull(service.factory.apply(view), "Factory for service: " + service.type.getName() + " returned null");
+                timings.put(service.type, Duration.ofNanos(System.nanoTime() - start));
+                services.put(service.type, value);
+            }, executor));
+        }
+        
+        return CompletableFuture.allOf(futures.values().toArray(new CompletableFuture<?>[0]))
+                                .thenApply(ignored -> new Result<>(ClassMap.copyOf(services), Map.copyOf(timings)));
+    }
+    
+    List<Service<T>> sort() {
+        var dependents = new HashMap<Class<?>, List<Service<T>>>();
+        var remaining = new HashMap<Service<T>, Integer>();
+        var queue = new ArrayDeque<Service<T>>();
+        
+        for (var service : services.values()) {
+            for (var dependency : service.dependencies) {
+                if (!services.containsKey(dependency)) {
+                    throw new IllegalStateException("Service: " + service.type.getName() + " depends on unregistered service: " + dependency.getName());
+                }
+                dependents.computeIfAbsent(dependency, key -> new ArrayList<>()).add(service);
+            }
+            
+            remaining.put(service, service.dependencies.size());
+            if (service.dependencies.isEmpty()) {
+                queue.add(service);
+            }
+        }
+        
+        var sorted = new ArrayList<Service<T>>(services.size());
+        while (!queue.isEmpty()) {
+            var service = queue.poll();
+            sorted.add(service);
+            for (var dependent : dependents.getOrDefault(service.type, List.of())) {
+                if (remaining.merge(dependent, -1, Integer::sum) == 0) {
+                    queue.add(dependent);
+                }
+            }
+        }
+        
+        if (sorted.size() != services.size()) {
+            var cyclic = new ArrayList<String>();
+            for (var service : services.values()) {
+                if (remaining.get(service) > 0) {
+                    cyclic.add(service.type.getName());
+                }
+            }
+            throw new IllegalStateException("Services contain a circular dependency: " + cyclic);
+        }
+        
+        return sorted;
+    }
+    
+    
+    static class Service<T> {
+        
+        final Class<? extends T> type;
+        final Function<? super ClassMap<T>, ? extends T> factory;
+        final List<Class<? extends T>> dependencies;
+        
+        Service(Class<? extends T> type, Function<? super ClassMap<T>, ? extends T> factory, List<Class<? extends T>> dependencies) {
+            this.type = type;
+            this.factory = factory;
+            this.dependencies = dependencies;
+        }
+        
+    }
+    
+    
+    public static class Result<T> {
+        
+        private final ClassMap<T> services;
+        private final Map<Class<? extends T>, Duration> timings;
+        
+        Result(ClassMap<T> services, Map<Class<? extends T>, Duration> timings) {
+            this.services = services;
+            this.timings = timings;
+        }
+        
+        
+        public ClassMap<T> services() {
+            return services;
+        }
+        
+        public Map<Class<? extends T>, Duration> timings() {
+            return timings;
+        }
+        
+    }
+    
+}
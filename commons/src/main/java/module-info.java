@@ -24,6 +24,7 @@
 open module com.karuslabs.commons {
     exports com.karuslabs.commons.item;
     exports com.karuslabs.commons.item.builders;
+    exports com.karuslabs.commons.store;
     exports com.karuslabs.commons.util;
     exports com.karuslabs.commons.util.collections;
     exports com.karuslabs.commons.util.concurrent;
@@ -0,0 +1,311 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.store;
+
+import com.karuslabs.commons.util.collections.TokenMap;
+
+import java.util.*;
+
+import org.bukkit.*;
+import org.bukkit.entity.*;
+import org.bukkit.event.entity.EntityDeathEvent;
+import org.bukkit.event.player.PlayerQuitEvent;
+import org.bukkit.event.server.PluginDisableEvent;
+import org.bukkit.event.world.*;
+import org.bukkit.plugin.*;
+import org.bukkit.scheduler.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class TokenStoreTest {
+    
+    Plugin plugin = mock(Plugin.class);
+    Server server = mock(Server.class);
+    BukkitScheduler scheduler = mock(BukkitScheduler.class);
+    TokenStore<String, Object> store = new TokenStore<>(plugin, TokenMap::of, 1);
+    Player player = mock(Player.class);
+    Zombie zombie = mock(Zombie.class);
+    World world = mock(World.class);
+    
+    
+    @BeforeEach
+    void before() {
+        lenient().when(player.getUniqueId()).thenReturn(UUID.randomUUID());
+        lenient().when(zombie.getUniqueId()).thenReturn(UUID.randomUUID());
+        lenient().when(world.getUID()).thenReturn(UUID.randomUUID());
+        lenient().when(plugin.isEnabled()).thenReturn(true);
+        lenient().when(plugin.getServer()).thenReturn(server);
+        lenient().when(server.getScheduler()).thenReturn(scheduler);
+    }
+    
+    
+    @Test
+    void of() {
+        var manager = mock(PluginManager.class);
+        var task = mock(BukkitTask.class);
+        when(server.getPluginManager()).thenReturn(manager);
+        when(scheduler.runTaskTimer(eq(plugin), any(Runnable.class), eq(TokenStore.SWEEP), eq(TokenStore.SWEEP))).thenReturn(task);
+        
+        var store = TokenStore.of(plugin);
+        
+        verify(manager).registerEvents(store, plugin);
+        assertSame(task, store.sweeper);
+        
+        store.close();
+        verify(task).cancel();
+    }
+    
+    
+    @Test
+    void of_invalid() {
+        assertEquals(
+            "Pool capacity must not be negative: -1", 
+            assertThrows(IllegalArgumentException.class, () -> new TokenStore<>(plugin, TokenMap::of, -1)).getMessage()
+        );
+    }
+    
+    
+    @Test
+    void get() {
+        var map = store.get(player);
+        
+        assertSame(map, store.get(player));
+        assertSame(map, store.getIfPresent(player));
+        assertNotSame(map, store.get(world));
+        assertNull(store.getIfPresent(zombie));
+        assertEquals(2, store.size());
+    }
+    
+    
+    @Test
+    void get_closed() {
+        var map = store.get(player);
+        store.close();
+        
+        assertEquals("Store has been closed", assertThrows(IllegalStateException.class, () -> store.get(player)).getMessage());
+        assertThrows(IllegalStateException.class, () -> store.get(world));
+        assertNull(store.getIfPresent(player));
+        assertEquals(0, store.size());
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void release() {
+        var map = store.get(player);
+        map.put("a", String.class, "b");
+        
+        assertTrue(store.release(player));
+        assertFalse(store.release(player));
+        assertEquals(Map.of(TokenMap.key("a", String.class), "b"), map.map());
+        
+        store.recycle();
+        assertTrue(map.map().isEmpty());
+        assertEquals(1, store.pooled());
+        assertSame(map, store.get(zombie));
+        assertEquals(0, store.pooled());
+    }
+    
+    
+    @Test
+    void release_pool() {
+        store.get(player);
+        store.get(zombie);
+        
+        store.release(player);
+        store.release(zombie);
+        store.recycle();
+        
+        assertEquals(1, store.pooled());
+    }
+    
+    
+    @Test
+    void release_scheduled() {
+        store.get(player);
+        store.get(zombie);
+        store.release(player);
+        store.release(zombie);
+        
+        verify(scheduler, times(1)).runTask(eq(plugin), any(Runnable.class));
+        
+        store.recycle();
+        store.get(player);
+        store.release(player);
+        
+        verify(scheduler, times(2)).runTask(eq(plugin), any(Runnable.class));
+    }
+    
+    
+    @Test
+    void release_disabled() {
+        when(plugin.isEnabled()).thenReturn(false);
+        var map = store.get(player);
+        map.put("a", String.class, "b");
+        
+        assertTrue(store.release(player));
+        assertTrue(store.released.isEmpty());
+        verify(scheduler, never()).runTask(eq(plugin), any(Runnable.class));
+        
+        store.recycle();
+        assertEquals("b", map.get("a", String.class));
+        assertEquals(0, store.pooled());
+    }
+    
+    
+    @Test
+    void detach() {
+        var map = store.get(player);
+        map.put("a", String.class, "b");
+        store.get(world);
+        
+        assertSame(map, store.detach(player));
+        assertNotNull(store.detach(world));
+        assertNull(store.detach(player));
+        
+        store.quit(new PlayerQuitEvent(player, "quit"));
+        store.recycle();
+        
+        assertEquals("b", map.get("a", String.class));
+        assertEquals(0, store.pooled());
+    }
+    
+    
+    @Test
+    void sweep() {
+        var skeleton = mock(Zombie.class);
+        when(skeleton.getUniqueId()).thenReturn(UUID.randomUUID());
+        var loaded = Map.of(player.getUniqueId(), player, skeleton.getUniqueId(), skeleton);
+        when(server.getEntity(any())).thenAnswer(invocation -> loaded.get(invocation.getArgument(0)));
+        when(skeleton.isValid()).thenReturn(false);
+        
+        store.get(player);
+        store.get(zombie);
+        store.get(skeleton);
+        store.get(world);
+        
+        store.sweep();
+        store.recycle();
+        
+        assertNotNull(store.getIfPresent(player));
+        assertNull(store.getIfPresent(zombie));
+        assertNull(store.getIfPresent(skeleton));
+        assertNotNull(store.getIfPresent(world));
+        assertEquals(1, store.pooled());
+    }
+    
+    
+    @Test
+    void sweep_player() {
+        when(server.getEntity(player.getUniqueId())).thenReturn(player);
+        var map = store.get(player);
+        
+        store.sweep();
+        
+        assertSame(map, store.getIfPresent(player));
+        assertTrue(store.released.isEmpty());
+    }
+    
+    
+    @Test
+    void release_world() {
+        when(world.getEntities()).thenReturn(List.of(zombie));
+        store.get(world);
+        store.get(zombie);
+        
+        assertTrue(store.release(world));
+        
+        assertNull(store.getIfPresent(world));
+        assertNull(store.getIfPresent(zombie));
+    }
+    
+    
+    @Test
+    void quit() {
+        store.get(player);
+        store.quit(new PlayerQuitEvent(player, "quit"));
+        
+        assertNull(store.getIfPresent(player));
+    }
+    
+    
+    @Test
+    void death() {
+        store.get(player);
+        store.get(zombie);
+        
+        store.death(new EntityDeathEvent(zombie, new ArrayList<>()));
+        store.death(new EntityDeathEvent(player, new ArrayList<>()));
+        
+        assertNull(store.getIfPresent(zombie));
+        assertNotNull(store.getIfPresent(player));
+    }
+    
+    
+    @Test
+    void unload_chunk() {
+        var chunk = mock(Chunk.class);
+        when(chunk.getEntities()).thenReturn(new Entity[] {player, zombie});
+        store.get(player);
+        store.get(zombie);
+        
+        store.unload(new ChunkUnloadEvent(chunk));
+        
+        assertNotNull(store.getIfPresent(player));
+        assertNull(store.getIfPresent(zombie));
+    }
+    
+    
+    @Test
+    void unload_world() {
+        when(world.getEntities()).thenReturn(List.of());
+        store.get(world);
+        
+        store.unload(new WorldUnloadEvent(world));
+        
+        assertNull(store.getIfPresent(world));
+    }
+    
+    
+    @Test
+    void disable() {
+        store.get(player);
+        store.get(world);
+        
+        store.disable(new PluginDisableEvent(mock(Plugin.class)));
+        assertEquals(2, store.size());
+        
+        store.disable(new PluginDisableEvent(plugin));
+        assertEquals(0, store.size());
+        assertEquals(0, store.pooled());
+    }
+    
+}
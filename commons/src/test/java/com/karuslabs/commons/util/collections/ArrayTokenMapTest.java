@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ArrayTokenMapTest {
+    
+    static final Key<String, String> NAME = TokenMap.indexed("array.name", String.class);
+    static final Key<String, Integer> AGE = TokenMap.indexed("array.age", Integer.class);
+    
+    
+    ArrayTokenMap<String, Object> map = (ArrayTokenMap<String, Object>) TokenMap.<String, Object>array();
+    
+    
+    @Test
+    void put() {
+        assertNull(map.put(AGE, 1));
+        assertEquals(1, (int) map.put(AGE, 2));
+        
+        assertEquals(2, (int) map.get(AGE));
+        assertEquals(2, (int) map.get("array.age", Integer.class));
+        assertEquals(2, map.map().get(TokenMap.key("array.age", Integer.class)));
+        assertEquals(1, map.map().size());
+        assertTrue(map.slots.length > AGE.index && map.slots.length <= Registry.size());
+        assertNull(map.overflow);
+    }
+    
+    
+    @Test
+    void put_unindexed() {
+        map.put("array.unindexed", String.class, "a");
+        
+        assertEquals("a", map.get("array.unindexed", String.class));
+        assertEquals(Map.of(TokenMap.key("array.unindexed", String.class), "a"), map.overflow);
+        assertEquals(0, map.slots.length);
+    }
+    
+    
+    @Test
+    void put_indexed_later() {
+        map.put("array.later", String.class, "a");
+        var later = TokenMap.indexed("array.later", String.class);
+        
+        assertEquals("a", map.get(later));
+        assertEquals("a", map.put(later, "b"));
+        assertEquals("b", map.get("array.later", String.class));
+        assertTrue(map.overflow.isEmpty());
+        assertEquals(1, map.map().size());
+    }
+    
+    
+    @Test
+    void get_missing() {
+        map.put(AGE, 1);
+        
+        assertNull(map.get(NAME));
+        assertFalse(map.containsKey(NAME));
+        assertNull(map.map().get("array.age"));
+        assertEquals("default", map.getOrDefault(NAME, "default"));
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put(NAME, "a");
+        map.put(AGE, 1);
+        map.put("array.unindexed", String.class, "b");
+        
+        assertEquals("a", map.map().remove(NAME));
+        assertEquals("b", map.map().remove(TokenMap.key("array.unindexed", String.class)));
+        assertNull(map.map().remove(NAME));
+        
+        assertEquals(Map.of(AGE, 1), map.map());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put(NAME, "a");
+        map.put(AGE, 1);
+        map.put("array.unindexed", String.class, "b");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var keys = new HashSet<Key<String, ?>>();
+        while (iterator.hasNext()) {
+            var key = iterator.next().getKey();
+            keys.add(key);
+            if (key.equals(NAME) || key.name.equals("array.unindexed")) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(Set.of(NAME, AGE, TokenMap.key("array.unindexed", String.class)), keys);
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(Map.of(AGE, 1), map.map());
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put(NAME, "a");
+        map.put("array.unindexed", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertNull(map.get(NAME));
+    }
+    
+}
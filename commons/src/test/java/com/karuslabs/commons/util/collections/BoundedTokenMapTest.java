@@ -0,0 +1,216 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class BoundedTokenMapTest {
+    
+    ConcurrentBoundedTokenMap<String, Object> map = (ConcurrentBoundedTokenMap<String, Object>) BoundedTokenMap.<String, Object>of(100);
+    
+    
+    @Test
+    void of_invalid() {
+        assertEquals("Maximum weight must be positive: 0", assertThrows(IllegalArgumentException.class, () -> BoundedTokenMap.of(0)).getMessage());
+    }
+    
+    
+    @Test
+    void put_bounded() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        map.maintain();
+        
+        assertEquals(100, map.map().size());
+        assertEquals(100, map.weight());
+        assertEquals(100, map.maximum());
+        assertEquals(900, map.statistics().evictions());
+    }
+    
+    
+    @Test
+    void put_admission() {
+        for (int i = 0; i < 50; i++) {
+            map.put("hot" + i, Integer.class, i);
+        }
+        
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 50; i++) {
+                map.get("hot" + i, Integer.class);
+            }
+            map.maintain();
+        }
+        
+        for (int i = 0; i < 1000; i++) {
+            map.put("cold" + i, Integer.class, i);
+        }
+        map.maintain();
+        
+        int hot = 0;
+        for (int i = 0; i < 50; i++) {
+            if (map.containsKey("hot" + i, Integer.class)) {
+                hot++;
+            }
+        }
+        assertTrue(hot >= 45, "Expected frequently accessed entries to be retained, but only " + hot + " were");
+    }
+    
+    
+    @Test
+    void put_weighted() {
+        var map = (ConcurrentBoundedTokenMap<String, Object>) BoundedTokenMap.<String, Object>of(10, (key, value) -> ((String) value).length());
+        
+        map.put("a", String.class, "1234");
+        map.put("b", String.class, "1234");
+        assertEquals(8, map.weight());
+        
+        map.put("a", String.class, "1");
+        assertEquals(5, map.weight());
+        
+        map.put("c", String.class, "12345678901");
+        map.maintain();
+        
+        assertFalse(map.containsKey("c", String.class));
+        assertTrue(map.weight() <= 10);
+        assertEquals("Weight must not be negative: -1", assertThrows(IllegalArgumentException.class, 
+            () -> BoundedTokenMap.<String, Object>of(10, (key, value) -> -1).put("a", String.class, "b")
+        ).getMessage());
+    }
+    
+    
+    @Test
+    void statistics() {
+        map.put("a", String.class, "b");
+        map.get("a", String.class);
+        map.get("c", String.class);
+        
+        assertEquals("d", map.map().computeIfAbsent(TokenMap.key("d", String.class), key -> "d"));
+        assertEquals("d", map.map().computeIfAbsent(TokenMap.key("d", String.class), key -> "e"));
+        assertNull(map.map().computeIfAbsent(TokenMap.key("f", String.class), key -> null));
+        assertThrows(IllegalStateException.class, () -> map.map().computeIfAbsent(TokenMap.key("g", String.class), key -> { throw new IllegalStateException(); }));
+        
+        var statistics = map.statistics();
+        
+        assertEquals(2, statistics.hits());
+        assertEquals(4, statistics.misses());
+        assertEquals(1 / 3.0, statistics.hitRate(), 0.0001);
+        assertEquals(1, statistics.loads());
+        assertEquals(2, statistics.failures());
+        assertTrue(statistics.loading() > 0);
+        assertEquals(0, statistics.evictions());
+        assertTrue(statistics.toString().startsWith("Statistics[hits: 2 misses: 4 evictions: 0 loads: 1 failures: 2 loading: "));
+    }
+    
+    
+    @Test
+    void conditional() {
+        var key = TokenMap.key("a", Integer.class);
+        
+        assertNull(map.map().replace(key, 1));
+        assertNull(map.map().putIfAbsent(key, 1));
+        assertEquals(1, map.map().putIfAbsent(key, 2));
+        assertTrue(map.map().replace(key, 1, 2));
+        assertFalse(map.map().replace(key, 1, 3));
+        assertEquals(2, map.map().replace(key, 3));
+        assertFalse(map.map().remove(key, 2));
+        assertTrue(map.map().remove(key, 3));
+        
+        map.maintain();
+        assertEquals(0, map.weight());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put("a", String.class, "b");
+        map.put("c", String.class, "d");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        iterator.next();
+        iterator.remove();
+        
+        assertEquals(1, map.map().size());
+        assertEquals(1, map.weight());
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put("a", String.class, "b");
+        map.put("c", String.class, "d");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertEquals(0, map.weight());
+    }
+    
+    
+    @Test
+    void concurrent() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (int thread = 0; thread < 4; thread++) {
+            int seed = thread;
+            futures.add(executor.submit(() -> {
+                var random = new Random(seed);
+                for (int i = 0; i < 10_000; i++) {
+                    var name = String.valueOf(random.nextInt(500));
+                    switch (random.nextInt(4)) {
+                        case 0:
+                            map.map().remove(TokenMap.key(name, Integer.class));
+                            break;
+                        case 1:
+                            map.put(name, Integer.class, i);
+                            break;
+                        default:
+                            map.get(name, Integer.class);
+                    }
+                }
+            }));
+        }
+        
+        for (var future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        map.maintain();
+        
+        assertTrue(map.map().size() <= 100);
+        assertEquals(map.map().size(), map.weight());
+        assertEquals(map.weight(), Arrays.stream(map.weights).sum());
+    }
+    
+}
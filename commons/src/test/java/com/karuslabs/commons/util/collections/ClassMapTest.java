@@ -24,13 +24,20 @@
 
 package com.karuslabs.commons.util.collections;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.*;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.of;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -75,12 +82,314 @@ class ClassMapTest {
     }
     
     
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void getAssignable(ClassMap<Object> map) {
+        map.put(CharSequence.class, "sequence");
+        map.put(Object.class, "object");
+        
+        assertEquals("sequence", map.getAssignable(String.class));
+        assertEquals("object", map.getAssignable(Integer.class));
+        assertEquals("sequence", map.getAssignable(String.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void getAssignable_invalidated(ClassMap<Object> map) {
+        map.put(Object.class, "object");
+        assertEquals("object", map.getAssignable(String.class));
+        
+        map.put(String.class, "string");
+        assertEquals("string", map.getAssignable(String.class));
+        
+        map.map().remove(String.class);
+        assertEquals("object", map.getAssignable(String.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void getAssignable_replaced(ClassMap<Object> map) {
+        map.put(Object.class, "object");
+        map.put(Integer.class, 1);
+        assertEquals("object", map.getAssignable(String.class));
+        
+        map.map().remove(Integer.class);
+        map.map().put(CharSequence.class, "sequence");
+        assertEquals("sequence", map.getAssignable(String.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void getAssignable_added(ClassMap<Object> map) {
+        map.put(Object.class, "object");
+        assertEquals("object", map.getAssignable(String.class));
+        
+        map.map().putAll(Map.of(Comparable.class, "comparable"));
+        assertEquals("comparable", map.getAssignable(Integer.class));
+        
+        map.map().merge(Number.class, "number", (old, value) -> value);
+        assertEquals("number", map.getAssignable(Integer.class));
+        
+        map.map().computeIfAbsent(Integer.class, type -> "integer");
+        assertEquals("integer", map.getAssignable(Integer.class));
+        
+        map.map().putIfAbsent(String.class, "string");
+        assertEquals("string", map.getAssignable(String.class));
+        
+        map.map().compute(Long.class, (type, value) -> "long");
+        assertEquals("long", map.getAssignable(Long.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void getAssignable_none(ClassMap<Object> map) {
+        map.put(Integer.class, 1);
+        
+        assertNull(map.getAssignable(String.class));
+        assertNull(map.getAssignable(String.class));
+    }
+    
+    
     @Test
     void put() {
         map.put(String.class, "first");
         assertEquals("first", map.put(String.class, "second"));
     }
     
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putLazy(ClassMap<Object> map) {
+        var count = new int[1];
+        map.putLazy(String.class, () -> "lazy" + count[0]++);
+        
+        assertTrue(map.containsKey(String.class));
+        assertEquals(0, count[0]);
+        
+        assertEquals("lazy0", map.get(String.class));
+        assertEquals("lazy0", map.getOrDefault(String.class, "default"));
+        assertEquals("lazy0", map.map().get(String.class));
+        assertEquals(1, count[0]);
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putLazy_table(ClassMap<Object> map) {
+        var table = (Lazy.Table) map;
+        
+        map.put(String.class, "a");
+        assertEquals("a", map.get(String.class));
+        assertFalse(map.containsKey(Integer.class));
+        assertNull(table.lazies(false));
+        
+        map.putLazy(Integer.class, () -> 1);
+        assertEquals(Set.of(Integer.class), table.lazies(false).keySet());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putLazy_assignable(ClassMap<Object> map) {
+        map.putLazy(CharSequence.class, () -> "lazy");
+        map.putLazy(int.class, () -> 1);
+        
+        assertEquals("lazy", map.getAssignable(String.class));
+        assertEquals(1, map.getInt(int.class, 0));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putLazy_map(ClassMap<Object> map) {
+        map.putLazy(String.class, () -> "lazy");
+        
+        assertFalse(map.map().containsKey(String.class));
+        assertTrue(map.map().values().isEmpty());
+        assertFalse(map.containsValue("lazy"));
+        
+        assertEquals("lazy", map.get(String.class));
+        assertEquals(List.of("lazy"), new ArrayList<>(map.map().values()));
+        assertEquals(Set.of(Map.entry(String.class, "lazy")), map.map().entrySet());
+        assertTrue(map.containsValue("lazy"));
+        
+        String old = map.put(String.class, "a");
+        assertEquals("lazy", old);
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putLazy_replaced(ClassMap<Object> map) {
+        map.putLazy(String.class, () -> { throw new AssertionError(); });
+        assertNull(map.put(String.class, "a"));
+        assertEquals("a", map.get(String.class));
+        
+        map.putLazy(String.class, () -> "lazy");
+        assertFalse(map.map().containsKey(String.class));
+        assertEquals("lazy", map.get(String.class));
+    }
+    
+    
+    @Test
+    void putLazy_frozen() {
+        map.putLazy(String.class, () -> "lazy");
+        assertTrue(ClassMap.copyOf(map.map()).map().isEmpty());
+        
+        map.get(String.class);
+        var frozen = ClassMap.copyOf(map.map());
+        
+        assertEquals("lazy", frozen.get(String.class));
+        assertEquals(Map.of(String.class, "lazy"), frozen.map());
+        assertThrows(UnsupportedOperationException.class, () -> frozen.putLazy(String.class, () -> "other"));
+    }
+    
+    
+    @Test
+    void putLazy_null() {
+        map.putLazy(String.class, () -> null);
+        assertEquals("Supplier returned null", assertThrows(NullPointerException.class, () -> map.get(String.class)).getMessage());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void putIfAbsent(ClassMap<Object> map) {
+        assertNull(map.putIfAbsent(String.class, "a"));
+        assertEquals("a", map.putIfAbsent(String.class, "b"));
+        
+        map.putLazy(Integer.class, () -> 1);
+        assertEquals(1, (int) map.putIfAbsent(Integer.class, 2));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void computeIfAbsent(ClassMap<Object> map) {
+        assertEquals("java.lang.String", map.computeIfAbsent(String.class, Class::getName));
+        assertEquals("java.lang.String", map.computeIfAbsent(String.class, type -> "other"));
+        
+        map.putLazy(Integer.class, () -> 1);
+        assertEquals(1, (int) map.computeIfAbsent(Integer.class, type -> 2));
+        assertEquals(1, map.map().get(Integer.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void compute(ClassMap<Object> map) {
+        assertEquals("java.lang.String:null", map.compute(String.class, (type, value) -> type.getName() + ":" + value));
+        
+        map.putLazy(Integer.class, () -> 1);
+        assertEquals(2, (int) map.compute(Integer.class, (type, value) -> value + 1));
+        assertNull(map.compute(Integer.class, (type, value) -> null));
+        assertFalse(map.containsKey(Integer.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void merge(ClassMap<Object> map) {
+        assertEquals(1, (int) map.merge(Integer.class, 1, Integer::sum));
+        assertEquals(3, (int) map.merge(Integer.class, 2, Integer::sum));
+        
+        map.putLazy(Long.class, () -> 1L);
+        assertEquals(3L, (long) map.merge(Long.class, 2L, Long::sum));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void replace(ClassMap<Object> map) {
+        assertNull(map.replace(String.class, "a"));
+        assertFalse(map.containsKey(String.class));
+        
+        map.put(String.class, "a");
+        assertEquals("a", map.replace(String.class, "b"));
+        assertFalse(map.replace(String.class, "a", "c"));
+        assertTrue(map.replace(String.class, "b", "c"));
+        assertEquals("c", map.get(String.class));
+        
+        map.putLazy(Integer.class, () -> 1);
+        assertEquals(1, (int) map.replace(Integer.class, 2));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void primitives(ClassMap<Object> map) {
+        map.putInt(int.class, 1);
+        map.putLong(long.class, 2);
+        map.putDouble(double.class, 3.5);
+        
+        assertEquals(1, map.getInt(int.class, 0));
+        assertEquals(2, map.getLong(long.class, 0));
+        assertEquals(3.5, map.getDouble(double.class, 0));
+        assertEquals(1, (int) map.get(int.class));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void primitives_default(ClassMap<Object> map) {
+        map.map().put(int.class, "invalid");
+        
+        assertEquals(4, map.getInt(int.class, 4));
+        assertEquals(5, map.getLong(long.class, 5));
+        assertEquals(6.5, map.getDouble(double.class, 6.5));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void stats(ClassMap<Object> map) {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        var stats = map.stats();
+        
+        assertEquals(2, stats.size());
+        assertEquals(stats.available() ? 2 : 0, Arrays.stream(stats.probes()).sum());
+    }
+    
+    
+    @Test
+    void stats_unavailable() {
+        var proxied = ClassMap.<Object>of(new HashMap<>());
+        proxied.put(String.class, "a");
+        
+        assertFalse(proxied.stats().available());
+        assertEquals(1, proxied.stats().size());
+        assertTrue(ClassMap.dense().stats().available());
+        assertTrue(ConcurrentClassMap.copyOnWrite().stats().available());
+    }
+    
+    
+    @Test
+    void stats_estimated() {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        var stats = map.stats();
+        var concurrent = ConcurrentClassMap.of();
+        concurrent.put(String.class, "a");
+        
+        assertTrue(stats.available() && stats.estimated());
+        assertEquals(2, stats.size());
+        assertEquals(16, stats.capacity());
+        assertTrue(concurrent.stats().estimated());
+        assertFalse(ClassMap.dense().stats().estimated());
+    }
+    
+    
+    static Stream<Arguments> map_provider() {
+        return Stream.of(of(ClassMap.of()), of(ClassMap.of(new HashMap<>())), of(ConcurrentClassMap.of()), of(WeakClassMap.of()), of(ClassMap.dense()), of(ClassMap.unboxed()), of(ConcurrentClassMap.copyOnWrite()), of(ClassMap.overlay(ClassMap.overlay(ClassMap.of()))));
+    }
+    
 }
 
 
@@ -95,6 +404,59 @@ class HashClassMapTest {
         assertSame(map, map.map());
     }
     
+    
+    @Test
+    void getAssignable_map() {
+        map.put(Object.class, "object");
+        assertEquals("object", map.getAssignable(String.class));
+        
+        map.map().put(CharSequence.class, "sequence");
+        assertEquals("sequence", map.getAssignable(String.class));
+    }
+    
+    
+    @Test
+    void getAssignable_concurrent() throws InterruptedException, ExecutionException, TimeoutException {
+        map.put(Object.class, "object");
+        map.put(CharSequence.class, "sequence");
+        map.put(Number.class, 0);
+        
+        var types = List.of(String.class, StringBuilder.class, Integer.class, Long.class, Double.class, Thread.class);
+        var executor = Executors.newFixedThreadPool(4);
+        try {
+            var futures = new ArrayList<Future<?>>();
+            for (int i = 0; i < 4; i++) {
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10000; j++) {
+                        var type = types.get(j % types.size());
+                        var expected = CharSequence.class.isAssignableFrom(type) ? "sequence" : Number.class.isAssignableFrom(type) ? (Object) 0 : "object";
+                        assertEquals(expected, map.getAssignable(type));
+                    }
+                }));
+            }
+            
+            for (var future : futures) {
+                future.get(10, TimeUnit.SECONDS);
+            }
+            
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+    
+    
+    @Test
+    void getAssignable_unloaded() {
+        map.put(Object.class, "object");
+        
+        var type = Unloadable.load();
+        assertEquals("object", map.getAssignable(type));
+        
+        var reference = new WeakReference<>(type);
+        type = null;
+        assertTrue(Unloadable.collected(reference));
+    }
+    
 }
 
 
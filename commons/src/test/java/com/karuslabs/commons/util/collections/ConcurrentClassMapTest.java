@@ -24,7 +24,9 @@
 
 package com.karuslabs.commons.util.collections;
 
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -49,6 +51,92 @@ class ConcurrentClassMapTest {
         assertNotNull(map);
     }
     
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void forEach(ConcurrentClassMap<Object> map) {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        var values = ConcurrentHashMap.newKeySet();
+        map.forEach(1, (type, value) -> values.add(value));
+        
+        assertEquals(Set.of("a", 1), values);
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void search(ConcurrentClassMap<Object> map) {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        assertEquals("a", map.search(Long.MAX_VALUE, (type, value) -> type == String.class ? value : null));
+        assertNull(map.search(1, (type, value) -> null));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void reduce(ConcurrentClassMap<Object> map) {
+        map.put(Integer.class, 1);
+        map.put(Long.class, 2L);
+        map.put(Short.class, (short) 3);
+        
+        assertEquals(6, (int) map.reduce(1, (type, value) -> ((Number) value).intValue(), Integer::sum));
+        assertNull(map.reduce(1, (type, value) -> null, (a, b) -> a));
+    }
+    
+    
+    static Stream<Arguments> map_provider() {
+        return Stream.of(
+            Arguments.of(ConcurrentClassMap.of()), 
+            Arguments.of(ConcurrentClassMap.of(new ConcurrentHashMap<>())), 
+            Arguments.of(ConcurrentClassMap.copyOnWrite()), 
+            Arguments.of(WeakClassMap.of())
+        );
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void bulk_lazy(ConcurrentClassMap<Object> map) {
+        map.putLazy(String.class, () -> "lazy");
+        
+        map.forEach(1, (key, value) -> fail());
+        assertNull(map.search(1, (key, value) -> value));
+        
+        map.get(String.class);
+        assertEquals("lazy", map.search(1, (key, value) -> value));
+        assertEquals("lazy", map.reduce(1, (key, value) -> (String) value, (a, b) -> a + b));
+    }
+    
+    
+    @Test
+    void putLazy() throws InterruptedException {
+        var map = ConcurrentClassMap.<Object>of();
+        var count = new AtomicInteger();
+        var latch = new CountDownLatch(1);
+        map.putLazy(String.class, () -> "lazy" + count.getAndIncrement());
+        
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<Object>>();
+        for (int i = 0; i < 8; i++) {
+            futures.add(executor.submit(() -> {
+                latch.await();
+                return map.get(String.class);
+            }));
+        }
+        latch.countDown();
+        
+        for (var future : futures) {
+            assertEquals("lazy0", assertDoesNotThrow(() -> future.get()));
+        }
+        assertEquals(1, count.get());
+        
+        executor.shutdown();
+    }
+    
 }
 
 
@@ -26,13 +26,19 @@ package com.karuslabs.commons.util.collections;
 
 import com.karuslabs.commons.util.collections.TokenMap.Key;
 
+import java.util.*;
 import java.util.concurrent.*;
+import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.of;
 
 
 @ExtendWith(MockitoExtension.class)
@@ -61,6 +67,63 @@ class ConcurrentTokenMapTest {
         assertEquals(1, (int) map.getOrDefault("a", int.class, 1));
     }
     
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void forEach(ConcurrentTokenMap<String, Object> map) {
+        map.put("a", String.class, "b");
+        map.put("c", int.class, 1);
+        
+        var values = ConcurrentHashMap.newKeySet();
+        map.forEach(1, (key, value) -> values.add(value));
+        
+        assertEquals(Set.of("b", 1), values);
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void search(ConcurrentTokenMap<String, Object> map) {
+        map.put("a", String.class, "b");
+        map.put("c", int.class, 1);
+        
+        assertEquals(1, (int) map.search(Long.MAX_VALUE, (key, value) -> key.equals(TokenMap.key("c", int.class)) ? value : null));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void reduce(ConcurrentTokenMap<String, Object> map) {
+        for (int i = 1; i <= 100; i++) {
+            map.put(String.valueOf(i), int.class, i);
+        }
+        
+        assertEquals(5050, (int) map.reduce(1, (key, value) -> (Integer) value, Integer::sum));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void addAndGet(ConcurrentTokenMap<String, Object> map) throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < 1000; i++) {
+            futures.add(executor.submit(() -> map.addAndGet("a", 1L)));
+        }
+        
+        for (var future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(1000L, map.getLong("a", 0));
+    }
+    
+    
+    static Stream<Arguments> map_provider() {
+        var skiplist = new ConcurrentSkipListMap<Key<String, ? extends Object>, Object>(Comparator.comparing(Key::toString));
+        return Stream.of(of(ConcurrentTokenMap.of()), of(ConcurrentTokenMap.of(new ConcurrentHashMap<>())), of(ConcurrentTokenMap.of(skiplist)), of(ConcurrentTokenMap.probing()), of(PersistentTokenMap.of()));
+    }
+    
 }
 
 
@@ -91,3 +154,152 @@ class ConcurrentProxiedTokenMapTest {
     }
     
 }
+
+
+@ExtendWith(MockitoExtension.class)
+class ProbingTokenMapTest {
+    
+    ProbingTokenMap<String, Object> map = (ProbingTokenMap<String, Object>) ConcurrentTokenMap.<String, Object>probing(1);
+    
+    
+    @Test
+    void get() {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        
+        assertEquals("b", map.get("a", String.class));
+        assertEquals(1, (int) map.get("a", Integer.class));
+        assertNull(map.get("a", Long.class));
+        assertNull(map.get(null, String.class));
+        assertNull(map.map().get("a"));
+    }
+    
+    
+    @Test
+    void getOrDefault() {
+        map.put("a", String.class, "b");
+        
+        assertEquals("b", map.getOrDefault("a", String.class, "c"));
+        assertEquals("c", map.getOrDefault("d", String.class, "c"));
+    }
+    
+    
+    @Test
+    void resize() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        
+        assertEquals(1000, map.map().size());
+        assertEquals(2048, map.table.length());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) map.get(String.valueOf(i), Integer.class));
+        }
+    }
+    
+    
+    @Test
+    void remove() {
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals(i, map.map().remove(TokenMap.key(String.valueOf(i), Integer.class)));
+        }
+        
+        assertEquals(50, map.map().size());
+        assertFalse(map.map().remove(TokenMap.key("1", Integer.class), 2));
+        assertTrue(map.map().remove(TokenMap.key("1", Integer.class), 1));
+        assertNull(map.map().remove("1"));
+        
+        for (int i = 3; i < 100; i += 2) {
+            assertEquals(i, (int) map.get(String.valueOf(i), Integer.class));
+        }
+        assertEquals(49, map.map().size());
+    }
+    
+    
+    @Test
+    void conditional() {
+        var key = TokenMap.key("a", Integer.class);
+        
+        assertNull(map.map().replace(key, 1));
+        assertNull(map.map().putIfAbsent(key, 1));
+        assertEquals(1, map.map().putIfAbsent(key, 2));
+        assertTrue(map.map().replace(key, 1, 2));
+        assertEquals(2, map.map().replace(key, 3));
+        assertEquals(3, map.map().computeIfAbsent(key, k -> 4));
+        assertEquals(5, map.map().merge(key, 2, (a, b) -> (Integer) a + (Integer) b));
+        assertNull(map.map().compute(key, (k, v) -> null));
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put("a", String.class, "b");
+        map.put("c", Integer.class, 1);
+        
+        assertEquals(Map.of(TokenMap.key("a", String.class), "b", TokenMap.key("c", Integer.class), 1), map.map());
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        iterator.next();
+        iterator.remove();
+        iterator.next();
+        
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(1, map.map().size());
+    }
+    
+    
+    @Test
+    void stats() {
+        for (int i = 0; i < 12; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        
+        var stats = map.stats();
+        
+        assertEquals(12, stats.size());
+        assertEquals(16, stats.capacity());
+        assertEquals(16, Arrays.stream(stats.chains()).sum());
+        assertEquals(12, Arrays.stream(stats.probes()).sum());
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put("a", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertFalse(map.containsKey("a", String.class));
+    }
+    
+    
+    @Test
+    void concurrent() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (int thread = 0; thread < 4; thread++) {
+            int offset = thread * 1000;
+            futures.add(executor.submit(() -> {
+                for (int i = offset; i < offset + 1000; i++) {
+                    map.put(String.valueOf(i), Integer.class, i);
+                    assertEquals(i, (int) map.get(String.valueOf(i), Integer.class));
+                }
+            }));
+        }
+        
+        for (var future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(4000, map.map().size());
+    }
+    
+}
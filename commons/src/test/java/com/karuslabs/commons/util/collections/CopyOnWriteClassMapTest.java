@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class CopyOnWriteClassMapTest {
+    
+    CopyOnWriteClassMap<Object> map = (CopyOnWriteClassMap<Object>) ConcurrentClassMap.copyOnWrite();
+    
+    
+    @Test
+    void put() {
+        var snapshot = map.snapshot;
+        map.put(String.class, "a");
+        
+        assertNotSame(snapshot, map.snapshot);
+        assertTrue(snapshot.isEmpty());
+        assertEquals("a", map.get(String.class));
+        assertThrows(NullPointerException.class, () -> map.map().put(String.class, null));
+    }
+    
+    
+    @Test
+    void putAll() {
+        map.map().putAll(Map.of(String.class, "a", Integer.class, 1));
+        assertEquals(Map.of(String.class, "a", Integer.class, 1), map.map());
+    }
+    
+    
+    @Test
+    void putIfAbsent() {
+        map.put(String.class, "a");
+        var snapshot = map.snapshot;
+        
+        assertEquals("a", map.putIfAbsent(String.class, "b"));
+        assertSame(snapshot, map.snapshot);
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put(String.class, "a");
+        
+        assertNull(map.map().remove(Integer.class));
+        assertFalse(map.map().remove(Integer.class, 1));
+        
+        var snapshot = map.snapshot;
+        assertFalse(map.map().remove(String.class, "b"));
+        assertSame(snapshot, map.snapshot);
+        assertTrue(map.map().remove(String.class, "a"));
+        
+        map.put(String.class, "a");
+        assertEquals("a", map.map().remove(String.class));
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void replace() {
+        assertFalse(map.replace(String.class, "a", "b"));
+        
+        map.put(String.class, "a");
+        var snapshot = map.snapshot;
+        assertFalse(map.replace(String.class, "c", "b"));
+        assertSame(snapshot, map.snapshot);
+        
+        assertTrue(map.replace(String.class, "a", "b"));
+        assertEquals("b", map.get(String.class));
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put(String.class, "a");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertFalse(map.containsKey(String.class));
+        assertFalse(map.map().containsKey(null));
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put(String.class, "a");
+        var iterator = map.map().entrySet().iterator();
+        
+        map.put(Integer.class, 1);
+        
+        assertEquals(String.class, iterator.next().getKey());
+        assertFalse(iterator.hasNext());
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+    
+}
@@ -0,0 +1,164 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class DenseClassMapTest {
+    
+    static final Class<?>[] TYPES = {
+        String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class, Character.class,
+        Boolean.class, Object.class, Number.class, CharSequence.class, List.class, Map.class, Set.class, Queue.class
+    };
+    
+    
+    DenseClassMap<Object> map = (DenseClassMap<Object>) ClassMap.dense(2);
+    
+    
+    @Test
+    void put() {
+        for (var type : TYPES) {
+            map.map().put((Class) type, type.getName());
+        }
+        
+        assertEquals(TYPES.length, map.map().size());
+        assertEquals(List.of(TYPES), new ArrayList<>(map.map().keySet()));
+        for (var type : TYPES) {
+            assertEquals(type.getName(), map.get((Class) type));
+        }
+        
+        assertEquals("java.lang.String", map.put(String.class, "string"));
+        assertEquals("string", map.get(String.class));
+    }
+    
+    
+    @Test
+    void remove() {
+        for (var type : TYPES) {
+            map.map().put((Class) type, type.getName());
+        }
+        
+        for (int i = 0; i < TYPES.length; i += 2) {
+            assertEquals(TYPES[i].getName(), map.map().remove(TYPES[i]));
+        }
+        assertNull(map.map().remove(String.class));
+        
+        map.put(String.class, "string");
+        
+        var expected = new ArrayList<Object>();
+        for (int i = 1; i < TYPES.length; i += 2) {
+            expected.add(TYPES[i].getName());
+        }
+        expected.add("string");
+        
+        assertEquals(expected, new ArrayList<>(map.map().values()));
+        assertTrue(map.containsKey(Integer.class));
+        assertFalse(map.containsKey(Long.class));
+    }
+    
+    
+    @Test
+    void rebuild() {
+        for (int i = 0; i < 100; i++) {
+            map.put(String.class, "string");
+            map.put(Integer.class, i);
+            map.map().remove(String.class);
+        }
+        
+        assertEquals(Map.of(Integer.class, 99), map.map());
+        assertTrue(map.keys.length <= 4);
+    }
+    
+    
+    @Test
+    void forEach() {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        map.map().remove(String.class);
+        
+        var values = new ArrayList<>();
+        map.map().forEach((type, value) -> values.add(value));
+        
+        assertEquals(List.of(1), values);
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        assertEquals(String.class, iterator.next().getKey());
+        iterator.remove();
+        assertEquals(Integer.class, iterator.next().getKey());
+        
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(Map.of(Integer.class, 1), map.map());
+    }
+    
+    
+    @Test
+    void stats() {
+        for (var type : TYPES) {
+            map.map().put((Class) type, type.getName());
+        }
+        map.map().remove(String.class);
+        
+        var stats = map.stats();
+        int occupied = 0;
+        int[] chains = stats.chains();
+        for (int i = 0; i < chains.length; i++) {
+            occupied += i * chains[i];
+        }
+        
+        assertEquals(TYPES.length - 1, stats.size());
+        assertEquals(map.indices.length, stats.capacity());
+        assertEquals(TYPES.length - 1, Arrays.stream(stats.probes()).sum());
+        assertEquals(TYPES.length, occupied);
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put(String.class, "a");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertNull(map.get(String.class));
+        assertEquals(0, ClassMap.dense().map().size());
+    }
+    
+}
@@ -0,0 +1,252 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.time.Duration;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static java.util.concurrent.TimeUnit.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class ExpiringTokenMapTest {
+    
+    long time = 0;
+    Map<Key<String, ?>, Object> expired = new HashMap<>();
+    ConcurrentExpiringTokenMap<String, Object> map = new ConcurrentExpiringTokenMap<>(() -> time, expired::put);
+    
+    
+    @Test
+    void put() {
+        map.put("a", String.class, "b", Duration.ofSeconds(1));
+        map.put("c", String.class, "d");
+        
+        time = MILLISECONDS.toNanos(999);
+        assertEquals("b", map.get("a", String.class));
+        
+        time = SECONDS.toNanos(1);
+        assertNull(map.get("a", String.class));
+        assertFalse(map.containsKey("a", String.class));
+        assertEquals(2, map.map().size());
+        
+        map.expire();
+        assertEquals(Map.of(TokenMap.key("a", String.class), "b"), expired);
+        assertEquals(Map.of(TokenMap.key("c", String.class), "d"), map.map());
+        
+        time = HOURS.toNanos(1000);
+        map.expire();
+        assertEquals("d", map.get("c", String.class));
+    }
+    
+    
+    @Test
+    void putIdle() {
+        map.putIdle("a", String.class, "b", Duration.ofSeconds(10));
+        
+        for (int i = 1; i <= 10; i++) {
+            time = SECONDS.toNanos(5 * i);
+            map.expire();
+            assertEquals("b", map.get("a", String.class));
+        }
+        assertTrue(expired.isEmpty());
+        
+        time += SECONDS.toNanos(10);
+        map.expire();
+        
+        assertNull(map.get("a", String.class));
+        assertEquals(Map.of(TokenMap.key("a", String.class), "b"), expired);
+        assertTrue(map.entries.isEmpty());
+    }
+    
+    
+    @Test
+    void expire_levels() {
+        long[] durations = {MILLISECONDS.toNanos(5), SECONDS.toNanos(3), MINUTES.toNanos(30), HOURS.toNanos(20), DAYS.toNanos(30), DAYS.toNanos(400)};
+        for (int i = 0; i < durations.length; i++) {
+            map.put(String.valueOf(i), Long.class, durations[i], Duration.ofNanos(durations[i]));
+        }
+        
+        for (int i = 0; i < durations.length; i++) {
+            time = durations[i] - 1;
+            map.expire();
+            assertEquals(i, expired.size());
+            
+            time = durations[i] + MILLISECONDS.toNanos(20);
+            map.expire();
+            assertEquals(i + 1, expired.size());
+            assertEquals(durations[i], expired.get(TokenMap.key(String.valueOf(i), Long.class)));
+        }
+        
+        assertTrue(map.entries.isEmpty());
+    }
+    
+    
+    @Test
+    void expire_many() {
+        var random = new Random(1);
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), Integer.class, i, Duration.ofMillis(1 + random.nextInt(100_000)));
+        }
+        
+        for (time = 0; time <= SECONDS.toNanos(101); time += MILLISECONDS.toNanos(250)) {
+            map.expire();
+            for (var entry : map.entries.values()) {
+                assertTrue(entry.expiration > time);
+            }
+        }
+        
+        assertEquals(1000, expired.size());
+        assertTrue(map.entries.isEmpty());
+    }
+    
+    
+    @Test
+    void put_invalid_duration() {
+        assertThrows(IllegalArgumentException.class, () -> map.put("a", String.class, "b", Duration.ZERO));
+        assertThrows(IllegalArgumentException.class, () -> map.put("a", String.class, "b", Duration.ofSeconds(-1)));
+        assertThrows(IllegalArgumentException.class, () -> map.putIdle("a", String.class, "b", Duration.ZERO));
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void put_replaces_expired() {
+        map.put("a", String.class, "b", Duration.ofSeconds(1));
+        time = SECONDS.toNanos(2);
+        
+        assertNull(map.put("a", String.class, "c"));
+        assertEquals(Map.of(TokenMap.key("a", String.class), "b"), expired);
+        
+        time = DAYS.toNanos(1);
+        map.expire();
+        assertEquals("c", map.get("a", String.class));
+    }
+    
+    
+    @Test
+    void replace() {
+        var key = TokenMap.key("a", String.class);
+        map.put(key, "b", Duration.ofSeconds(1));
+        
+        assertEquals("b", map.map().replace(key, "c"));
+        assertTrue(map.map().replace(key, "c", "d"));
+        assertFalse(map.map().replace(key, "c", "e"));
+        
+        time = SECONDS.toNanos(1);
+        assertNull(map.map().replace(key, "f"));
+        map.expire();
+        
+        assertEquals(Map.of(key, "d"), expired);
+    }
+    
+    
+    @Test
+    void putIfAbsent() {
+        var key = TokenMap.key("a", String.class);
+        map.put(key, "b", Duration.ofSeconds(1));
+        
+        assertEquals("b", map.map().putIfAbsent(key, "c"));
+        
+        time = SECONDS.toNanos(1);
+        assertNull(map.map().putIfAbsent(key, "c"));
+        assertEquals("c", map.get(key));
+    }
+    
+    
+    @Test
+    void remove() {
+        var key = TokenMap.key("a", String.class);
+        map.put(key, "b", Duration.ofSeconds(1));
+        map.put("c", String.class, "d", Duration.ofSeconds(1));
+        
+        assertFalse(map.map().remove(key, "c"));
+        assertEquals("b", map.map().remove(key));
+        assertNull(map.map().remove(key));
+        assertTrue(map.map().remove(TokenMap.key("c", String.class), "d"));
+        
+        time = SECONDS.toNanos(5);
+        map.expire();
+        
+        assertTrue(expired.isEmpty());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put("a", String.class, "b", Duration.ofSeconds(1));
+        map.put("c", String.class, "d");
+        time = SECONDS.toNanos(1);
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        assertEquals(TokenMap.key("c", String.class), iterator.next().getKey());
+        iterator.remove();
+        
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void merge() {
+        map.put("a", int.class, 1, Duration.ofSeconds(1));
+        
+        assertEquals(3, map.addAndGet("a", 2));
+        
+        time = SECONDS.toNanos(1);
+        assertEquals(2, map.addAndGet("a", 2));
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put("a", String.class, "b", Duration.ofSeconds(1));
+        map.map().clear();
+        
+        time = SECONDS.toNanos(2);
+        map.expire();
+        
+        assertTrue(map.map().isEmpty());
+        assertTrue(expired.isEmpty());
+    }
+    
+    
+    @Test
+    void of() {
+        var map = ExpiringTokenMap.<String, Object>of();
+        map.put("a", String.class, "b", Duration.ofHours(1));
+        
+        assertEquals("b", map.get("a", String.class));
+    }
+    
+}
@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class FrozenClassMapTest {
+    
+    static final Class<?>[] TYPES = {
+        String.class, Integer.class, Long.class, Double.class, Float.class, Short.class, Byte.class, Character.class,
+        Boolean.class, Object.class, Number.class, CharSequence.class, List.class, Map.class, Set.class, Queue.class,
+        ArrayList.class, HashMap.class, HashSet.class, LinkedList.class, TreeMap.class, int.class, long.class, void.class
+    };
+    
+    
+    Map<Class<?>, Object> source = new HashMap<>();
+    
+    
+    @Test
+    void get() {
+        for (var type : TYPES) {
+            source.put(type, type.getName());
+        }
+        
+        var map = ClassMap.copyOf((Map) source);
+        
+        for (var type : TYPES) {
+            assertEquals(type.getName(), map.get(type));
+            assertTrue(map.containsKey(type));
+        }
+        assertNull(map.get(Thread.class));
+        assertFalse(map.containsKey(Thread.class));
+        assertEquals(source, map.map());
+    }
+    
+    
+    @Test
+    void get_empty() {
+        var map = ClassMap.copyOf(Map.of());
+        
+        assertNull(map.get(String.class));
+        assertFalse(map.map().containsKey(null));
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void get_overflow() {
+        var map = new FrozenClassMap<Object>(new int[] {~0}, new Class<?>[] {String.class}, new Object[] {"a"}, new Class<?>[] {Integer.class}, new Object[] {1}, 2);
+        
+        assertEquals(1, (int) map.get(Integer.class));
+        assertTrue(map.containsKey(Integer.class));
+        assertEquals(Map.of(String.class, "a", Integer.class, 1), map);
+    }
+    
+    
+    @Test
+    void stats() {
+        var map = new FrozenClassMap<Object>(new int[] {~0, 0}, new Class<?>[] {String.class, null}, new Object[] {"a", null}, new Class<?>[] {Integer.class, Long.class}, new Object[] {1, 2L}, 3);
+        var stats = map.stats();
+        
+        assertTrue(stats.available());
+        assertEquals(3, stats.size());
+        assertEquals(2, stats.capacity());
+        assertArrayEquals(new int[] {1, 1, 1}, stats.chains());
+        assertArrayEquals(new int[] {0, 1, 1, 1}, stats.probes());
+    }
+    
+    
+    @Test
+    void put() {
+        var map = ClassMap.<Object>copyOf(Map.of(String.class, "a"));
+        assertThrows(UnsupportedOperationException.class, () -> map.put(String.class, "b"));
+    }
+    
+    
+    @Test
+    void slot() {
+        int length = 1000;
+        var slots = new HashSet<Integer>();
+        
+        for (int seed = 1; seed < 100; seed++) {
+            slots.add(FrozenClassMap.slot(42, seed, length));
+        }
+        
+        assertTrue(slots.size() > 90);
+        assertTrue(FrozenClassMap.reduce(-1, length) < length);
+    }
+    
+}
@@ -0,0 +1,130 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class GroupedTokenMapTest {
+    
+    GroupedTokenMap<String, Object> map = (GroupedTokenMap<String, Object>) TokenMap.<String, Object>grouped();
+    
+    
+    @Test
+    void put() {
+        assertNull(map.put("a", String.class, "b"));
+        assertEquals("b", map.put(TokenMap.key("a", String.class), "c"));
+        map.put("a", Integer.class, 1);
+        map.put("a", Long.class, 2L);
+        
+        assertEquals("c", map.get("a", String.class));
+        assertEquals(2L, (long) map.get(TokenMap.key("a", Long.class)));
+        assertEquals(1, map.groups.size());
+        assertEquals(3, map.groups.get("a").size);
+        assertEquals(3, map.map().size());
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        map.put("a", Long.class, 2L);
+        
+        assertEquals("b", map.map().remove(TokenMap.key("a", String.class)));
+        assertNull(map.map().remove(TokenMap.key("a", String.class)));
+        assertNull(map.map().remove("a"));
+        
+        assertEquals(1, (int) map.get("a", Integer.class));
+        assertEquals(2L, (long) map.get("a", Long.class));
+        
+        map.map().remove(TokenMap.key("a", Integer.class));
+        map.map().remove(TokenMap.key("a", Long.class));
+        
+        assertTrue(map.groups.isEmpty());
+        assertEquals(0, map.map().size());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        map.put("a", Long.class, 2L);
+        map.put("c", String.class, "d");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var visited = new ArrayList<Object>();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            visited.add(entry.getValue());
+            if (entry.getKey().name.equals("a")) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(Set.of("b", 1, 2L, "d"), new HashSet<>(visited));
+        assertEquals(4, visited.size());
+        assertEquals(Map.of(TokenMap.key("c", String.class), "d"), map.map());
+        assertFalse(map.groups.containsKey("a"));
+    }
+    
+    
+    @Test
+    void iterator_hasNext_remove() {
+        map.put("a", String.class, "b");
+        map.put("c", String.class, "d");
+        
+        var iterator = map.map().entrySet().iterator();
+        var first = iterator.next().getKey();
+        assertTrue(iterator.hasNext());
+        iterator.remove();
+        
+        assertNull(map.map().get(first));
+        assertEquals(1, map.map().size());
+        assertTrue(iterator.hasNext());
+        iterator.next();
+        assertFalse(iterator.hasNext());
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put("a", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.groups.isEmpty());
+        assertEquals(0, map.map().size());
+    }
+    
+}
@@ -0,0 +1,226 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class JournaledTokenMapTest {
+    
+    static final Key<String, Integer> KILLS = TokenMap.indexed("journal.kills", int.class);
+    static final Key<String, String> NAME = TokenMap.indexed("journal.name", String.class);
+    
+    
+    JournalingTokenMap<String, Object> map = (JournalingTokenMap<String, Object>) JournaledTokenMap.<String, Object>of();
+    
+    
+    @Test
+    void drainChanges() {
+        assertFalse(map.dirty());
+        
+        map.put(NAME, "a");
+        map.putInt("journal.kills", 1);
+        map.put("journal.title", String.class, "b");
+        map.put("journal.title", String.class, "c");
+        map.addAndGet("journal.played", 2L);
+        
+        assertTrue(map.dirty());
+        assertEquals(Set.of(NAME, KILLS, TokenMap.key("journal.title", String.class), TokenMap.key("journal.played", long.class)), map.drainChanges());
+        
+        assertFalse(map.dirty());
+        assertTrue(map.drainChanges().isEmpty());
+        assertEquals(4, map.map().size());
+    }
+    
+    
+    @Test
+    void drainChanges_indexed() {
+        map.put("journal.name", String.class, "a");
+        
+        assertTrue(map.keys.isEmpty());
+        assertSame(NAME, map.drainChanges().iterator().next());
+    }
+    
+    
+    @Test
+    void drainChanges_copied() {
+        var probe = TokenMap.<String, Object>key(null, null);
+        map.map().put(probe.set("journal.probe", String.class), "a");
+        probe.set("journal.other", String.class);
+        
+        assertEquals(Set.of(TokenMap.key("journal.probe", String.class)), map.drainChanges());
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put(NAME, "a");
+        map.put("journal.title", String.class, "b");
+        map.drainChanges();
+        
+        assertNull(map.map().remove(TokenMap.key("journal.unknown", String.class)));
+        assertFalse(map.dirty());
+        
+        assertEquals("a", map.map().remove(NAME));
+        assertEquals(Set.of(NAME), map.drainChanges());
+        
+        map.map().clear();
+        assertEquals(Set.of(TokenMap.key("journal.title", String.class)), map.drainChanges());
+    }
+    
+    
+    @Test
+    void clear_drained() {
+        var drained = new HashSet<Key<String, ?>>();
+        var underlying = TokenMap.<String, Object>of(new HashMap<>() {
+            @Override
+            public void clear() {
+                drained.addAll(map.drainChanges());
+                super.clear();
+            }
+        });
+        map = (JournalingTokenMap<String, Object>) JournaledTokenMap.of(underlying);
+        
+        map.put(NAME, "a");
+        map.putInt("journal.kills", 1);
+        map.drainChanges();
+        map.map().clear();
+        
+        assertTrue(drained.isEmpty());
+        assertEquals(Set.of(NAME, KILLS), map.drainChanges());
+    }
+    
+    
+    @Test
+    void record_probe() {
+        map.putInt("journal.kills", 1);
+        map.addAndGet("journal.played", 2L);
+        map.addAndGet("journal.played", 3L);
+        
+        assertEquals(Set.of(TokenMap.key("journal.played", long.class)), map.keys);
+        assertNotSame(ThreadLocalKey.KEY.get(), map.keys.iterator().next());
+        assertEquals(Set.of(KILLS, TokenMap.key("journal.played", long.class)), map.drainChanges());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put(NAME, "a");
+        map.put("journal.title", String.class, "b");
+        map.drainChanges();
+        
+        var iterator = map.map().entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getKey().equals(NAME)) {
+                assertEquals("a", entry.setValue("c"));
+            } else {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(Set.of(NAME, TokenMap.key("journal.title", String.class)), map.drainChanges());
+        assertEquals(Map.of(NAME, "c"), map.map());
+    }
+    
+    
+    @Test
+    void removeAll() {
+        map.put("journal.title", String.class, "a");
+        map.put("journal.title", Integer.class, 1);
+        map.drainChanges();
+        
+        map.removeAll("journal.title");
+        assertEquals(Set.of(TokenMap.key("journal.title", String.class), TokenMap.key("journal.title", Integer.class)), map.drainChanges());
+    }
+    
+    
+    @Test
+    void grow() {
+        var journaled = new JournalingTokenMap<String, Object>(TokenMap.of());
+        var bits = journaled.indexed;
+        
+        journaled.put(NAME, "a");
+        
+        assertNotSame(bits, journaled.indexed);
+        assertSame(journaled.indexed, journaled.grow(0));
+        assertEquals(Set.of(NAME), journaled.drainChanges());
+    }
+    
+    
+    @Test
+    void concurrent() throws Exception {
+        var journaled = JournaledTokenMap.<String, Object>of(ConcurrentTokenMap.of());
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (int thread = 0; thread < 3; thread++) {
+            int offset = thread * 1000;
+            futures.add(executor.submit(() -> {
+                for (int i = offset; i < offset + 1000; i++) {
+                    journaled.put("journal." + i, Integer.class, i);
+                    journaled.putInt("journal.kills", i);
+                }
+            }));
+        }
+        
+        var drained = new HashSet<Key<String, ?>>();
+        var drainer = executor.submit(() -> {
+            for (int i = 0; i < 100; i++) {
+                drained.addAll(journaled.drainChanges());
+            }
+        });
+        
+        for (var future : futures) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        drainer.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        
+        drained.addAll(journaled.drainChanges());
+        assertEquals(3001, drained.size());
+        assertTrue(drained.contains(KILLS));
+        assertFalse(journaled.dirty());
+    }
+    
+    
+    @Test
+    void of_unboxed() {
+        var journaled = JournaledTokenMap.<String, Object>of(TokenMap.unboxed());
+        journaled.putInt("journal.kills", 3);
+        
+        assertEquals(3, journaled.getInt("journal.kills", 0));
+        assertEquals(Set.of(KILLS), journaled.drainChanges());
+    }
+    
+}
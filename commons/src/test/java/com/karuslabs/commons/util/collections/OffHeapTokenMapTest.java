@@ -0,0 +1,269 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.TokenMap.Key;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class OffHeapTokenMapTest {
+    
+    static final Key<String, Boolean> ALIVE = TokenMap.indexed("offheap.alive", boolean.class);
+    static final Key<String, Integer> KILLS = TokenMap.indexed("offheap.kills", int.class);
+    static final Key<String, Long> PLAYED = TokenMap.indexed("offheap.played", long.class);
+    static final Key<String, Double> DAMAGE = TokenMap.indexed("offheap.damage", double.class);
+    static final Key<String, Character> RANK = TokenMap.indexed("offheap.rank", char.class);
+    
+    static final OffHeapTokenMap.Layout<String> LAYOUT = OffHeapTokenMap.layout(ALIVE, KILLS, PLAYED, DAMAGE, RANK);
+    
+    
+    DirectTokenMap<String, Object> map = (DirectTokenMap<String, Object>) LAYOUT.<Object>allocate();
+    
+    
+    @Test
+    void layout() {
+        assertEquals(32, LAYOUT.size());
+        assertArrayEquals(new int[] {8, 16, 24, 28, 30}, LAYOUT.offsets);
+    }
+    
+    
+    @Test
+    void layout_unindexed() {
+        assertEquals(
+            "Key must be indexed: " + TokenMap.key("offheap.unindexed", int.class),
+            assertThrows(IllegalArgumentException.class, () -> OffHeapTokenMap.layout(TokenMap.key("offheap.unindexed", int.class))).getMessage()
+        );
+    }
+    
+    
+    @Test
+    void layout_reference() {
+        var key = TokenMap.indexed("offheap.reference", String.class);
+        assertEquals(
+            "Key must be of a primitive type: " + key,
+            assertThrows(IllegalArgumentException.class, () -> OffHeapTokenMap.layout(key)).getMessage()
+        );
+    }
+    
+    
+    @Test
+    void layout_duplicate() {
+        assertThrows(IllegalArgumentException.class, () -> OffHeapTokenMap.layout(KILLS, KILLS));
+    }
+    
+    
+    @Test
+    void layout_empty() {
+        assertEquals("Layout must contain at least one key", assertThrows(IllegalArgumentException.class, () -> OffHeapTokenMap.layout()).getMessage());
+    }
+    
+    
+    @Test
+    void put() {
+        map.put(ALIVE, true);
+        map.put(KILLS, -3);
+        map.put(PLAYED, Long.MAX_VALUE);
+        map.put(DAMAGE, 2.5);
+        map.put(RANK, 'a');
+        map.put("offheap.name", String.class, "b");
+        
+        assertEquals(1, map.references.map().size());
+        assertEquals(Map.of(
+            ALIVE, true, KILLS, -3, PLAYED, Long.MAX_VALUE, DAMAGE, 2.5, RANK, 'a', TokenMap.key("offheap.name", String.class), "b"
+        ), map.map());
+    }
+    
+    
+    @Test
+    void put_reference() {
+        map.putInt("offheap.kills", 1);
+        assertEquals(1, map.map().put(KILLS, "invalid"));
+        
+        assertEquals("invalid", map.map().get(KILLS));
+        assertEquals(2, map.getInt("offheap.kills", 2));
+        
+        map.putInt("offheap.kills", 3);
+        assertTrue(map.references.map().isEmpty());
+        assertEquals(3, map.map().get(KILLS));
+    }
+    
+    
+    @Test
+    void primitives() {
+        assertEquals(1, map.getInt("offheap.kills", 1));
+        assertEquals(2.5, map.addAndGet("offheap.damage", 2.5));
+        assertEquals(5.0, map.addAndGet("offheap.damage", 2.5));
+        assertEquals(Long.MIN_VALUE, map.addAndGet("offheap.played", Long.MIN_VALUE));
+        assertEquals(4, map.addAndGet("offheap.unknown", 4));
+        
+        assertEquals(5.0, map.getDouble("offheap.damage", 0));
+        assertEquals(Long.MIN_VALUE, map.getLong("offheap.played", 0));
+        assertEquals(4, map.getInt("offheap.unknown", 0));
+        assertEquals(1, map.references.map().size());
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put(KILLS, 1);
+        map.put(DAMAGE, 2.0);
+        
+        assertEquals(1, map.map().remove(KILLS));
+        assertNull(map.map().remove(KILLS));
+        assertNull(map.map().remove("offheap.kills"));
+        
+        assertEquals(Map.of(DAMAGE, 2.0), map.map());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put(ALIVE, false);
+        map.put(KILLS, 1);
+        map.put(DAMAGE, 2.0);
+        map.put("offheap.name", String.class, "b");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var visited = new HashSet<Object>();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            assertTrue(visited.add(entry.getValue()));
+            if (!entry.getKey().equals(KILLS)) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(Set.of(false, 1, 2.0, "b"), visited);
+        assertEquals(Map.of(KILLS, 1), map.map());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+    
+    
+    @Test
+    void clear() {
+        map.putInt("offheap.kills", 1);
+        map.put("offheap.name", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertEquals(0, map.getInt("offheap.kills", 0));
+    }
+    
+    
+    @Test
+    void close() {
+        map.putInt("offheap.kills", 1);
+        map.close();
+        map.close();
+        
+        assertTrue(map.closed());
+        assertThrows(IllegalStateException.class, () -> map.getInt("offheap.kills", 0));
+        assertThrows(IllegalStateException.class, () -> map.map().size());
+    }
+    
+    
+    @Test
+    void allocate_reuse() {
+        var layout = OffHeapTokenMap.layout(KILLS);
+        var first = (DirectTokenMap<String, Object>) layout.allocate();
+        first.putInt("offheap.kills", 5);
+        first.close();
+        
+        var second = (DirectTokenMap<String, Object>) layout.allocate();
+        assertEquals(first.record, second.record);
+        assertEquals(first.base, second.base);
+        assertTrue(second.map().isEmpty());
+        assertEquals(1, layout.allocated());
+    }
+    
+    
+    @Test
+    void allocate_chunks() {
+        var layout = OffHeapTokenMap.layout(PLAYED);
+        var maps = new ArrayList<OffHeapTokenMap<String, Object>>();
+        for (int i = 0; i < layout.records + 1; i++) {
+            var map = layout.<Object>allocate();
+            map.putLong("offheap.played", i);
+            maps.add(map);
+        }
+        
+        assertEquals(2L * layout.records * layout.size(), layout.reserved());
+        for (int i = 0; i < maps.size(); i++) {
+            assertEquals(i, maps.get(i).getLong("offheap.played", -1));
+        }
+    }
+    
+    
+    @Test
+    void allocate_lowest() {
+        var layout = OffHeapTokenMap.layout(KILLS);
+        var maps = new ArrayList<DirectTokenMap<String, Object>>();
+        for (int i = 0; i < 4; i++) {
+            maps.add((DirectTokenMap<String, Object>) layout.<Object>allocate());
+        }
+        
+        maps.get(3).close();
+        maps.get(1).close();
+        
+        assertEquals(1, ((DirectTokenMap<String, Object>) layout.allocate()).record);
+        assertEquals(3, ((DirectTokenMap<String, Object>) layout.allocate()).record);
+        assertEquals(4, layout.allocated());
+    }
+    
+    
+    @Test
+    void release_chunks() {
+        var layout = OffHeapTokenMap.layout(PLAYED);
+        var maps = new ArrayList<DirectTokenMap<String, Object>>();
+        for (int i = 0; i < layout.records + 1; i++) {
+            maps.add((DirectTokenMap<String, Object>) layout.<Object>allocate());
+        }
+        
+        for (int i = 0; i < layout.records; i++) {
+            maps.get(i).close();
+        }
+        
+        assertEquals((long) layout.records * layout.size(), layout.reserved());
+        assertEquals(1, layout.allocated());
+        
+        var map = (DirectTokenMap<String, Object>) layout.<Object>allocate();
+        map.putLong("offheap.played", 7);
+        
+        assertEquals(0, map.record);
+        assertEquals(2L * layout.records * layout.size(), layout.reserved());
+        assertEquals(7, map.getLong("offheap.played", -1));
+        assertEquals(-1, maps.get(layout.records).getLong("offheap.played", -1));
+    }
+    
+}
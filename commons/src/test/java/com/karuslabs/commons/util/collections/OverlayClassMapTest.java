@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class OverlayClassMapTest {
+    
+    ClassMap<Object> root = ClassMap.of();
+    OverlayClassMap<Object> parent = (OverlayClassMap<Object>) ClassMap.overlay(root);
+    OverlayClassMap<Object> child = (OverlayClassMap<Object>) ClassMap.overlay(parent);
+    
+    
+    @Test
+    void get() {
+        root.put(String.class, "root");
+        parent.put(Integer.class, 1);
+        child.put(Long.class, 2L);
+        
+        assertEquals("root", child.get(String.class));
+        assertEquals(1, (int) child.get(Integer.class));
+        assertEquals(2L, (long) child.get(Long.class));
+        assertNull(parent.get(Long.class));
+        assertTrue(parent.entries.size() == 1 && child.entries.size() == 1);
+    }
+    
+    
+    @Test
+    void get_shadowed() {
+        parent.put(String.class, "parent");
+        child.put(String.class, "child");
+        
+        assertEquals("child", child.get(String.class));
+        assertEquals("parent", parent.get(String.class));
+        
+        child.map().remove(String.class);
+        assertEquals("parent", child.get(String.class));
+    }
+    
+    
+    @Test
+    void get_invalidated() {
+        assertNull(child.get(String.class));
+        
+        parent.put(String.class, "parent");
+        assertEquals("parent", child.get(String.class));
+        
+        parent.put(String.class, "updated");
+        assertEquals("updated", child.get(String.class));
+        
+        parent.map().remove(String.class);
+        assertNull(child.get(String.class));
+    }
+    
+    
+    @Test
+    void get_root() {
+        var world = ClassMap.overlay(root);
+        var player = ClassMap.overlay(world);
+        
+        root.put(String.class, "root1");
+        assertEquals("root1", world.get(String.class));
+        assertEquals("root1", player.get(String.class));
+        
+        root.put(String.class, "root2");
+        assertEquals("root2", world.get(String.class));
+        assertEquals("root2", player.get(String.class));
+        assertEquals("root2", child.get(String.class));
+        
+        root.map().remove(String.class);
+        assertNull(player.get(String.class));
+        assertFalse(child.containsKey(String.class));
+    }
+    
+    
+    @Test
+    void get_cached() {
+        parent.put(String.class, "parent");
+        child.get(String.class);
+        
+        assertEquals("parent", child.cache.get(String.class));
+        
+        child.put(Integer.class, 1);
+        assertEquals("parent", child.cache.get(String.class));
+        
+        parent.put(Integer.class, 2);
+        child.get(Long.class);
+        assertFalse(child.cache.containsKey(String.class));
+    }
+    
+    
+    @Test
+    void putLazy() {
+        var count = new int[1];
+        parent.putLazy(String.class, () -> "lazy" + ++count[0]);
+        
+        assertEquals("lazy1", child.get(String.class));
+        assertEquals("lazy1", parent.get(String.class));
+        assertTrue(child.entries.isEmpty());
+        assertEquals(1, count[0]);
+    }
+    
+    
+    @Test
+    void putLazy_shadowed() {
+        parent.put(String.class, "parent");
+        child.putLazy(String.class, () -> "lazy");
+        
+        assertFalse(child.map().containsKey(String.class));
+        assertTrue(child.containsKey(String.class));
+        assertEquals("lazy", child.get(String.class));
+        assertEquals("parent", parent.get(String.class));
+    }
+    
+    
+    @Test
+    void map() {
+        root.put(String.class, "root");
+        parent.put(Integer.class, 1);
+        child.put(String.class, "child");
+        
+        assertEquals(Map.of(String.class, "child", Integer.class, 1), child.map());
+        assertEquals(2, child.map().size());
+        assertEquals(Map.of(String.class, "root", Integer.class, 1), parent.map());
+    }
+    
+    
+    @Test
+    void map_shadowed() {
+        parent.put(String.class, "parent");
+        parent.put(Integer.class, 1);
+        child.putLazy(String.class, () -> "lazy");
+        
+        assertEquals(1, child.map().size());
+        assertEquals(Map.of(Integer.class, 1), child.map());
+        
+        assertEquals("lazy", child.get(String.class));
+        assertEquals(Map.of(String.class, "lazy", Integer.class, 1), child.map());
+    }
+    
+    
+    @Test
+    void iterator() {
+        parent.put(Integer.class, 1);
+        child.put(String.class, "child");
+        
+        var iterator = child.map().entrySet().iterator();
+        assertEquals(String.class, iterator.next().getKey());
+        iterator.remove();
+        
+        assertEquals(Integer.class, iterator.next().getKey());
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(Map.of(Integer.class, 1), child.map());
+    }
+    
+    
+    @Test
+    void clear() {
+        parent.put(Integer.class, 1);
+        child.put(String.class, "child");
+        
+        child.map().clear();
+        
+        assertTrue(child.entries.isEmpty());
+        assertEquals(Map.of(Integer.class, 1), child.map());
+    }
+    
+    
+    @Test
+    void allocate() {
+        root.put(String.class, "root");
+        
+        assertEquals("root", parent.get(String.class));
+        assertEquals("root", child.get(String.class));
+        assertSame(Collections.emptyMap(), parent.entries);
+        assertSame(Collections.emptyMap(), parent.cache);
+        assertSame(Collections.emptyMap(), child.entries);
+        
+        child.put(Integer.class, 1);
+        assertNotSame(Collections.emptyMap(), child.entries);
+        
+        child.map().clear();
+        assertSame(Collections.emptyMap(), child.entries);
+    }
+    
+}
@@ -0,0 +1,236 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.HashTrieTokenMap.*;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class PersistentTokenMapTest {
+    
+    HashTrieTokenMap<Object, Object> map = (HashTrieTokenMap<Object, Object>) PersistentTokenMap.<Object, Object>of();
+    
+    
+    @Test
+    void put() {
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.put(String.valueOf(i), Integer.class, i));
+        }
+        assertEquals(1, (int) map.put("1", Integer.class, -1));
+        
+        assertEquals(1000, map.map().size());
+        assertEquals(-1, (int) map.get("1", Integer.class));
+        for (int i = 2; i < 1000; i++) {
+            assertEquals(i, (int) map.get(String.valueOf(i), Integer.class));
+        }
+        assertNull(map.get("1", Long.class));
+        assertNull(map.get(null, Long.class));
+    }
+    
+    
+    @Test
+    void put_collision() {
+        var first = new Colliding(1);
+        var second = new Colliding(2);
+        var third = new Colliding(3);
+        
+        map.put(first, String.class, "a");
+        map.put(second, String.class, "b");
+        map.put(third, String.class, "c");
+        map.put("d", String.class, "d");
+        map.put(second, String.class, "e");
+        
+        assertEquals(4, map.map().size());
+        assertEquals("a", map.get(first, String.class));
+        assertEquals("e", map.get(second, String.class));
+        assertEquals("c", map.get(third, String.class));
+        assertEquals("d", map.get("d", String.class));
+        
+        assertEquals("a", map.map().remove(TokenMap.key(first, String.class)));
+        assertEquals("c", map.map().remove(TokenMap.key(third, String.class)));
+        assertEquals("e", map.get(second, String.class));
+        assertEquals(2, map.map().size());
+    }
+    
+    
+    @Test
+    void remove() {
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.map().remove(TokenMap.key(String.valueOf(i), Integer.class)));
+        }
+        assertNull(map.map().remove(TokenMap.key("0", Integer.class)));
+        assertNull(map.map().remove("0"));
+        
+        assertTrue(map.map().isEmpty());
+        assertNull(map.root.get().trie);
+    }
+    
+    
+    @Test
+    void remove_collapse() {
+        map.put("a", String.class, "a");
+        map.put("b", String.class, "b");
+        map.map().remove(TokenMap.key("a", String.class));
+        
+        assertTrue(map.root.get().trie instanceof Leaf);
+        assertEquals("b", map.get("b", String.class));
+    }
+    
+    
+    @Test
+    void snapshot() {
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        
+        var snapshot = map.snapshot();
+        map.put("0", Integer.class, -1);
+        map.put("a", String.class, "b");
+        map.map().remove(TokenMap.key("1", Integer.class));
+        
+        assertEquals(100, snapshot.map().size());
+        assertEquals(0, (int) snapshot.get("0", Integer.class));
+        assertEquals(1, (int) snapshot.getOrDefault("1", Integer.class, -1));
+        assertFalse(snapshot.containsKey("a", String.class));
+        assertEquals(100, snapshot.map().entrySet().stream().count());
+        
+        assertEquals(100, map.map().size());
+        assertEquals(-1, (int) map.get("0", Integer.class));
+    }
+    
+    
+    @Test
+    void snapshot_immutable() {
+        map.put("a", String.class, "b");
+        var snapshot = map.snapshot();
+        
+        assertThrows(UnsupportedOperationException.class, () -> snapshot.put("c", String.class, "d"));
+        
+        var iterator = snapshot.map().entrySet().iterator();
+        iterator.next();
+        assertThrows(UnsupportedOperationException.class, iterator::remove);
+    }
+    
+    
+    @Test
+    void iterator() {
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), Integer.class, i);
+        }
+        map.put(new Colliding(1), String.class, "a");
+        map.put(new Colliding(2), String.class, "b");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var visited = new HashSet<Object>();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            assertTrue(visited.add(entry.getValue()));
+            if (!(entry.getValue() instanceof Integer) || (Integer) entry.getValue() % 2 != 0) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(102, visited.size());
+        assertEquals(50, map.map().size());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+    
+    
+    @Test
+    void conditional() {
+        var key = TokenMap.key((Object) "a", (Class<Object>) (Class<?>) String.class);
+        
+        assertNull(map.map().putIfAbsent(key, "b"));
+        assertEquals("b", map.map().putIfAbsent(key, "c"));
+        assertFalse(map.map().replace(key, "c", "d"));
+        assertTrue(map.map().replace(key, "b", "d"));
+        assertEquals("d", map.map().replace(key, "e"));
+        assertEquals("ef", map.map().merge(key, "f", (old, value) -> (String) old + value));
+        assertNull(map.map().computeIfPresent(key, (k, value) -> null));
+        assertEquals("g", map.map().computeIfAbsent(key, k -> "g"));
+        assertFalse(map.map().remove(key, "h"));
+        assertTrue(map.map().remove(key, "g"));
+        assertTrue(map.map().isEmpty());
+    }
+    
+    
+    @Test
+    void concurrent() throws Exception {
+        var executor = Executors.newFixedThreadPool(4);
+        var futures = new ArrayList<Future<?>>();
+        for (int i = 0; i < 4; i++) {
+            int offset = i * 1000;
+            futures.add(executor.submit(() -> {
+                for (int j = offset; j < offset + 1000; j++) {
+                    map.put(String.valueOf(j), Integer.class, j);
+                    map.snapshot();
+                }
+            }));
+        }
+        
+        for (var future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        assertEquals(4000, map.map().size());
+        assertEquals(4000, map.snapshot().map().entrySet().stream().count());
+    }
+    
+    
+    static class Colliding {
+        
+        final int id;
+        
+        Colliding(int id) {
+            this.id = id;
+        }
+        
+        @Override
+        public boolean equals(Object object) {
+            return object instanceof Colliding && ((Colliding) object).id == id;
+        }
+        
+        @Override
+        public int hashCode() {
+            return 0;
+        }
+        
+    }
+    
+}
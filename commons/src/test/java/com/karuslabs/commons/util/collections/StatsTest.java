@@ -0,0 +1,107 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class StatsTest {
+    
+    static class Collision {
+        
+        @Override
+        public int hashCode() {
+            return 1;
+        }
+        
+    }
+    
+    
+    @Test
+    void simulate() {
+        var stats = Stats.simulate(List.of(1, 2, 3, 17));
+        
+        assertEquals(4, stats.size());
+        assertEquals(16, stats.capacity());
+        assertArrayEquals(new int[] {13, 2, 1}, stats.chains());
+        assertArrayEquals(new int[] {0, 3, 1}, stats.probes());
+        assertEquals(2, stats.longest());
+        assertEquals(1.25, stats.average());
+        assertEquals(0, stats.trees());
+        assertTrue(stats.estimated());
+    }
+    
+    
+    @Test
+    void simulate_trees() {
+        var keys = new ArrayList<Object>();
+        for (int i = 0; i < 60; i++) {
+            keys.add(new Collision());
+        }
+        
+        var stats = Stats.simulate(keys);
+        
+        assertEquals(128, stats.capacity());
+        assertEquals(60, stats.longest());
+        assertEquals(1, stats.trees());
+    }
+    
+    
+    @Test
+    void simulate_empty() {
+        var stats = Stats.simulate(List.of());
+        
+        assertArrayEquals(new int[] {16}, stats.chains());
+        assertArrayEquals(new int[] {0}, stats.probes());
+        assertEquals(0, stats.average());
+    }
+    
+    
+    @Test
+    void unavailable() {
+        var stats = Stats.unavailable(3);
+        
+        assertFalse(stats.available());
+        assertFalse(stats.estimated());
+        assertEquals(3, stats.size());
+        assertEquals(0, stats.capacity());
+        assertArrayEquals(new int[] {0}, stats.probes());
+        assertEquals("Stats[size: 3 unavailable]", stats.toString());
+    }
+    
+    
+    @Test
+    void toString_value() {
+        assertEquals("Stats[size: 1 capacity: 16 chains: [15, 1] probes: [0, 1] trees: 0]", new Stats(1, 16, new int[] {15, 1}, new int[] {0, 1}, 0).toString());
+        assertEquals("Stats[size: 1 capacity: 16 chains: [15, 1] probes: [0, 1] trees: 0 estimated]", Stats.simulate(List.of(1)).toString());
+    }
+    
+}
@@ -0,0 +1,177 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.fasterxml.jackson.core.*;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.io.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.*;
+
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.params.provider.Arguments.of;
+
+
+@ExtendWith(MockitoExtension.class)
+class TokenMapCodecTest {
+    
+    TokenMap<String, Object> map = TokenMap.of();
+    
+    
+    TokenMapCodecTest() {
+        map.put("flag", boolean.class, true);
+        map.put("grade", char.class, 'A');
+        map.put("title", String.class, "Lord: of \"things\"");
+        map.put("level", byte.class, (byte) 3);
+        map.put("rank", short.class, (short) 300);
+        map.put("kills", int.class, 42);
+        map.put("kills", Integer.class, 43);
+        map.put("played", long.class, Long.MAX_VALUE);
+        map.put("speed", float.class, 0.25f);
+        map.put("health", double.class, 19.5);
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"factory_provider"})
+    void write_read(JsonFactory factory) throws IOException {
+        var writer = new StringWriter();
+        try (var generator = factory.createGenerator(writer)) {
+            TokenMapCodec.write(generator, map);
+        }
+        
+        try (var parser = factory.createParser(writer.toString())) {
+            assertEquals(map.map(), TokenMapCodec.readInto(parser, TokenMap.of()).map());
+        }
+    }
+    
+    
+    @Test
+    void write_format() throws IOException {
+        TokenMap<String, Object> map = TokenMap.of();
+        map.put("kills", int.class, 1);
+        map.put("a:b", String.class, "c");
+        
+        var writer = new StringWriter();
+        try (var generator = new JsonFactory().createGenerator(writer)) {
+            TokenMapCodec.write(generator, map);
+        }
+        
+        var json = writer.toString();
+        assertTrue(json.contains("\"kills:int\":1"));
+        assertTrue(json.contains("\"a:b:java.lang.String\":\"c\""));
+        
+        try (var parser = new JsonFactory().createParser(json)) {
+            assertEquals("c", TokenMapCodec.readInto(parser, TokenMap.of()).get("a:b", String.class));
+        }
+    }
+    
+    
+    @Test
+    void write_unsupported() throws IOException {
+        map.put("list", List.class, List.of());
+        
+        try (var generator = new JsonFactory().createGenerator(new StringWriter())) {
+            assertEquals("Unsupported type: java.util.List for key: list", assertThrows(JsonGenerationException.class, () -> TokenMapCodec.write(generator, map)).getOriginalMessage());
+        }
+    }
+    
+    
+    @Test
+    void write_invalid_value() throws IOException {
+        map.map().put(TokenMap.key("kills", (Class<Object>) (Class<?>) int.class), "many");
+        
+        try (var generator = new JsonFactory().createGenerator(new StringWriter())) {
+            assertEquals("Invalid value: java.lang.String for key: kills:int", assertThrows(JsonGenerationException.class, () -> TokenMapCodec.write(generator, map)).getOriginalMessage());
+        }
+    }
+    
+    
+    @Test
+    void read_invalid_field() throws IOException {
+        try (var parser = new JsonFactory().createParser("{\"kills:java.util.List\": []}")) {
+            assertThrows(JsonParseException.class, () -> TokenMapCodec.readInto(parser, TokenMap.of()));
+        }
+        
+        try (var parser = new JsonFactory().createParser("{\"kills\": 1}")) {
+            assertThrows(JsonParseException.class, () -> TokenMapCodec.readInto(parser, TokenMap.of()));
+        }
+    }
+    
+    
+    @ParameterizedTest
+    @ValueSource(strings = {
+        "{\"grade:char\": \"AB\"}", 
+        "{\"title:java.lang.String\": {\"kills:int\": 5}, \"x:int\": 1}", 
+        "{\"title:java.lang.String\": null}", 
+        "{\"grade:char\": 1}", 
+        "{\"kills:int\": \"5\"}", 
+        "{\"kills:int\": 1.5}", 
+        "{\"ratio:double\": \"1.5\"}", 
+        "{\"alive:boolean\": 1}", 
+        "{\"kills:int\": [1]}"
+    })
+    void read_invalid_value(String json) throws IOException {
+        try (var parser = new JsonFactory().createParser(json)) {
+            assertThrows(JsonParseException.class, () -> TokenMapCodec.readInto(parser, TokenMap.of()));
+        }
+    }
+    
+    
+    @Test
+    void read_invalid_object() throws IOException {        
+        try (var parser = new JsonFactory().createParser("[]")) {
+            assertThrows(JsonParseException.class, () -> TokenMapCodec.readInto(parser, TokenMap.of()));
+        }
+    }
+    
+    
+    @Test
+    void mapper() throws IOException {
+        var module = new SimpleModule();
+        module.addSerializer(new TokenMapCodec.Serializer());
+        module.addDeserializer(TokenMap.class, new TokenMapCodec.Deserializer());
+        
+        var mapper = new ObjectMapper(new YAMLFactory()).registerModule(module);
+        var yaml = mapper.writeValueAsString(map);
+        
+        assertEquals(map.map(), mapper.readValue(yaml, TokenMap.class).map());
+    }
+    
+    
+    static Stream<Arguments> factory_provider() {
+        return Stream.of(of(new JsonFactory()), of(new YAMLFactory()));
+    }
+    
+}
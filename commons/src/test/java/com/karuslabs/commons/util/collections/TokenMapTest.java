@@ -26,7 +26,7 @@ package com.karuslabs.commons.util.collections;
 
 import com.karuslabs.commons.util.collections.TokenMap.Key;
 
-import java.util.HashMap;
+import java.util.*;
 import java.util.stream.Stream;
 
 import org.junit.jupiter.api.Test;
@@ -95,10 +95,128 @@ class TokenMapTest {
     }
     
     
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void primitives(TokenMap<String, Object> map) {
+        map.putInt("a", 1);
+        map.putLong("a", 2L);
+        map.putDouble("a", 3.0);
+        
+        assertEquals(1, map.getInt("a", 0));
+        assertEquals(2L, map.getLong("a", 0));
+        assertEquals(3.0, map.getDouble("a", 0));
+        assertEquals(1, (int) map.get("a", int.class));
+        assertEquals(0, map.getInt("b", 0));
+        
+        map.map().put(TokenMap.key("c", int.class), "invalid");
+        assertEquals(4, map.getInt("c", 4));
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void addAndGet(TokenMap<String, Object> map) {
+        assertEquals(1, map.addAndGet("a", 1));
+        assertEquals(3, map.addAndGet("a", 2));
+        assertEquals(5L, map.addAndGet("a", 5L));
+        assertEquals(1.5, map.addAndGet("a", 1.5));
+        
+        assertEquals(3, map.getInt("a", 0));
+        assertEquals(3, map.map().size());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void entries(TokenMap<String, Object> map) {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        map.put("c", String.class, "d");
+        
+        assertEquals(Map.of(String.class, "b", Integer.class, 1), map.entries("a"));
+        assertEquals(Set.of(String.class, Integer.class), map.types("a"));
+        assertTrue(map.entries("e").isEmpty());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void removeAll(TokenMap<String, Object> map) {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        map.put("c", String.class, "d");
+        
+        map.removeAll("a");
+        map.removeAll("e");
+        
+        assertEquals(Map.of(TokenMap.key("c", String.class), "d"), map.map());
+        assertEquals(1, map.map().size());
+        assertTrue(map.types("a").isEmpty());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void view(TokenMap<String, Object> map) {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        map.put("c", String.class, "d");
+        
+        var view = map.view(String.class);
+        assertEquals(Map.of("a", "b", "c", "d"), view);
+        assertEquals(2, view.size());
+        
+        view.put("e", "f");
+        view.remove("a");
+        map.put("g", String.class, "h");
+        
+        assertEquals(Map.of("c", "d", "e", "f", "g", "h"), view);
+        assertEquals("f", map.get("e", String.class));
+        assertFalse(map.containsKey("a", String.class));
+        assertEquals(1, (int) map.get("a", Integer.class));
+        
+        view.entrySet().removeIf(entry -> entry.getKey().equals("c"));
+        assertEquals(Map.of("e", "f", "g", "h"), view);
+        assertEquals(3, map.map().size());
+    }
+    
+    
+    @ParameterizedTest
+    @MethodSource({"map_provider"})
+    void stats(TokenMap<String, Object> map) {
+        for (int i = 0; i < 1000; i++) {
+            map.put(String.valueOf(i), int.class, i);
+        }
+        
+        var stats = map.stats();
+        
+        assertEquals(1000, stats.size());
+        assertEquals(stats.available() ? 1000 : 0, Arrays.stream(stats.probes()).sum());
+        assertTrue(stats.longest() < 8);
+        assertEquals(0, stats.trees());
+    }
+    
+    
+    @Test
+    void stats_estimated() {
+        TokenMap<String, Object> map = TokenMap.of();
+        ConcurrentTokenMap<String, Object> concurrent = ConcurrentTokenMap.of();
+        for (int i = 0; i < 100; i++) {
+            map.put(String.valueOf(i), int.class, i);
+            concurrent.put(String.valueOf(i), int.class, i);
+        }
+        
+        assertTrue(map.stats().estimated());
+        assertEquals(256, map.stats().capacity());
+        assertEquals(100, Arrays.stream(concurrent.stats().probes()).sum());
+        assertFalse(TokenMap.of(new HashMap<>()).stats().available());
+    }
+    
+    
     static Stream<Arguments> map_provider() {
         TokenMap<String, Object> hashed = TokenMap.of(1);
         TokenMap<String, Object> proxied = TokenMap.of(new HashMap<>());
-        return Stream.of(of(hashed), of(proxied));
+        return Stream.of(of(hashed), of(proxied), of(ConcurrentTokenMap.probing()), of(TokenMap.array()), of(TokenMap.grouped()), of(TokenMap.unboxed()), of(TokenMap.typed()));
     }
     
 }
@@ -122,6 +240,29 @@ class KeyTest {
     }
     
     
+    @Test
+    void hash_sequential() {
+        var keys = new ArrayList<Key<Integer, Integer>>();
+        for (int i = 0; i < 4096; i++) {
+            keys.add(TokenMap.key(i, int.class));
+        }
+        
+        assertTrue(Stats.simulate(keys).longest() < 8);
+        assertNotEquals(TokenMap.key(1, int.class).hashCode() + 1, TokenMap.key(2, int.class).hashCode());
+    }
+    
+    
+    @Test
+    void indexed() {
+        var indexed = TokenMap.indexed("indexed", String.class);
+        
+        assertSame(indexed, TokenMap.indexed("indexed", String.class));
+        assertEquals(TokenMap.key("indexed", String.class), indexed);
+        assertNotEquals(indexed.index, TokenMap.indexed("indexed", Integer.class).index);
+        assertEquals(-1, key.index);
+    }
+    
+    
     @Test
     void toString_value() {
         assertEquals("Key[name: name class: java.lang.String]", key.toString());
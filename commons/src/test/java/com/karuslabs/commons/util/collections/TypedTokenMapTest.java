@@ -0,0 +1,133 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class TypedTokenMapTest {
+    
+    TypedTokenMap<String, Object> map = (TypedTokenMap<String, Object>) TokenMap.<String, Object>typed();
+    
+    
+    @Test
+    void put() {
+        assertNull(map.put("a", String.class, "b"));
+        assertEquals("b", map.put(TokenMap.key("a", String.class), "c"));
+        map.put("a", Integer.class, 1);
+        
+        assertEquals(Set.of(String.class, Integer.class), map.types.keySet());
+        assertEquals(2, map.map().size());
+        assertEquals(Map.of(TokenMap.key("a", String.class), "c", TokenMap.key("a", Integer.class), 1), map.map());
+    }
+    
+    
+    @Test
+    void remove() {
+        map.put("a", String.class, "b");
+        map.put("a", Integer.class, 1);
+        
+        assertEquals("b", map.map().remove(TokenMap.key("a", String.class)));
+        assertNull(map.map().remove(TokenMap.key("a", String.class)));
+        assertNull(map.map().remove("a"));
+        
+        assertEquals(Set.of(Integer.class), map.types.keySet());
+        assertEquals(1, map.map().size());
+    }
+    
+    
+    @Test
+    void view() {
+        var view = map.view(String.class);
+        assertTrue(view.isEmpty());
+        
+        view.put("a", "b");
+        view.put("c", "d");
+        map.put("a", Integer.class, 1);
+        
+        assertEquals(2, view.size());
+        assertEquals(3, map.map().size());
+        
+        view.clear();
+        assertTrue(view.isEmpty());
+        assertFalse(map.types.containsKey(String.class));
+        assertEquals(1, map.map().size());
+    }
+    
+    
+    @Test
+    void view_iterator() {
+        var view = map.view(String.class);
+        view.put("a", "b");
+        
+        var iterator = view.entrySet().iterator();
+        iterator.next();
+        iterator.remove();
+        
+        assertFalse(map.types.containsKey(String.class));
+        assertEquals(0, map.map().size());
+    }
+    
+    
+    @Test
+    void iterator() {
+        map.put("a", String.class, "b");
+        map.put("c", String.class, "d");
+        map.put("a", Integer.class, 1);
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var keys = new HashSet<>();
+        while (iterator.hasNext()) {
+            var key = iterator.next().getKey();
+            keys.add(key);
+            if (key.type == String.class) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(Set.of(TokenMap.key("a", String.class), TokenMap.key("c", String.class), TokenMap.key("a", Integer.class)), keys);
+        assertEquals(Map.of(TokenMap.key("a", Integer.class), 1), map.map());
+        assertThrows(NoSuchElementException.class, iterator::next);
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put("a", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.types.isEmpty());
+        assertEquals(0, map.map().size());
+    }
+    
+}
@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class UnboxedClassMapTest {
+    
+    ClassMap<Object> map = ClassMap.unboxed();
+    
+    
+    @Test
+    void getInt() {
+        assertEquals(1, map.getInt(int.class, 1));
+        
+        map.putInt(int.class, 2);
+        map.putInt(Integer.class, 3);
+        
+        assertEquals(2, map.getInt(int.class, 1));
+        assertEquals(3, map.getInt(Integer.class, 1));
+        assertEquals(2, map.map().size());
+    }
+    
+    
+    @Test
+    void getLong() {
+        assertEquals(1, map.getLong(long.class, 1));
+        
+        map.putLong(long.class, Long.MAX_VALUE);
+        map.putLong(Long.class, 3);
+        
+        assertEquals(Long.MAX_VALUE, map.getLong(long.class, 1));
+        assertEquals(3, map.getLong(Long.class, 1));
+    }
+    
+    
+    @Test
+    void getDouble() {
+        assertEquals(1.5, map.getDouble(double.class, 1.5));
+        
+        map.putDouble(double.class, -2.5);
+        map.putDouble(Double.class, 3.5);
+        
+        assertEquals(-2.5, map.getDouble(double.class, 1));
+        assertEquals(3.5, map.getDouble(Double.class, 1));
+    }
+    
+    
+    @Test
+    void map() {
+        var view = map.map();
+        view.put(boolean.class, true);
+        view.put(byte.class, (byte) 1);
+        view.put(short.class, (short) 2);
+        view.put(char.class, 'c');
+        view.put(int.class, 4);
+        view.put(long.class, 5L);
+        view.put(float.class, 6.5F);
+        view.put(double.class, 7.5);
+        view.put(String.class, "string");
+        
+        assertEquals(Map.of(boolean.class, true, byte.class, (byte) 1, short.class, (short) 2, char.class, 'c', int.class, 4, 
+                            long.class, 5L, float.class, 6.5F, double.class, 7.5, String.class, "string"), view);
+        
+        assertEquals(4, view.put(int.class, 8));
+        assertEquals(8, map.getInt(int.class, 0));
+        assertTrue(view.containsKey(int.class));
+        
+        assertEquals(8, view.remove(int.class));
+        assertNull(view.remove(int.class));
+        assertFalse(view.containsKey(int.class));
+        assertEquals("string", view.remove(String.class));
+        assertFalse(view.containsKey(String.class));
+        
+        view.clear();
+        assertTrue(view.isEmpty());
+    }
+    
+    
+    @Test
+    void map_iterator() {
+        map.putInt(int.class, 1);
+        map.put(String.class, "string");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        assertEquals(int.class, iterator.next().getKey());
+        iterator.remove();
+        assertEquals(String.class, iterator.next().getKey());
+        iterator.remove();
+        
+        assertFalse(iterator.hasNext());
+        assertTrue(map.map().isEmpty());
+    }
+    
+}
@@ -0,0 +1,155 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class UnboxedTokenMapTest {
+    
+    UnboxedTokenMap<String, Object> map = (UnboxedTokenMap<String, Object>) TokenMap.<String, Object>unboxed();
+    
+    
+    @Test
+    void put() {
+        map.put("a", int.class, 1);
+        map.put("a", boolean.class, true);
+        map.put("a", char.class, 'c');
+        map.put("a", float.class, 1.5f);
+        map.put("a", String.class, "b");
+        
+        assertEquals(4, map.size);
+        assertEquals(1, map.references.map().size());
+        assertEquals(Map.of(
+            TokenMap.key("a", int.class), 1, TokenMap.key("a", boolean.class), true, TokenMap.key("a", char.class), 'c',
+            TokenMap.key("a", float.class), 1.5f, TokenMap.key("a", String.class), "b"
+        ), map.map());
+    }
+    
+    
+    @Test
+    void put_reference() {
+        map.putInt("a", 1);
+        assertEquals(1, map.map().put(TokenMap.key("a", int.class), "invalid"));
+        
+        assertEquals(0, map.size);
+        assertEquals("invalid", map.map().get(TokenMap.key("a", int.class)));
+        assertEquals(2, map.getInt("a", 2));
+        
+        map.putInt("a", 3);
+        assertTrue(map.references.map().isEmpty());
+        assertEquals(3, map.map().get(TokenMap.key("a", int.class)));
+    }
+    
+    
+    @Test
+    void resize() {
+        for (int i = 0; i < 1000; i++) {
+            map.putInt(String.valueOf(i), i);
+        }
+        
+        assertEquals(1000, map.map().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.getInt(String.valueOf(i), -1));
+        }
+    }
+    
+    
+    @Test
+    void resize_map() {
+        for (int i = 0; i < 1000; i++) {
+            assertNull(map.map().put(TokenMap.key(String.valueOf(i), int.class), i));
+        }
+        
+        assertEquals(1000, map.map().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, map.map().get(TokenMap.key(String.valueOf(i), int.class)));
+        }
+    }
+    
+    
+    @Test
+    void remove() {
+        for (int i = 0; i < 100; i++) {
+            map.putLong(String.valueOf(i), i);
+        }
+        
+        for (int i = 0; i < 100; i += 2) {
+            assertEquals((long) i, map.map().remove(TokenMap.key(String.valueOf(i), long.class)));
+        }
+        assertNull(map.map().remove(TokenMap.key("0", long.class)));
+        assertNull(map.map().remove("1"));
+        
+        assertEquals(50, map.map().size());
+        for (int i = 1; i < 100; i += 2) {
+            assertEquals(i, map.getLong(String.valueOf(i), -1));
+        }
+    }
+    
+    
+    @Test
+    void iterator() {
+        for (int i = 0; i < 100; i++) {
+            map.putInt(String.valueOf(i), i);
+        }
+        map.put("a", String.class, "b");
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        var visited = new HashSet<Object>();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            assertTrue(visited.add(entry.getValue()));
+            if (!(entry.getValue() instanceof Integer) || (Integer) entry.getValue() % 3 != 0) {
+                iterator.remove();
+            }
+        }
+        
+        assertEquals(101, visited.size());
+        assertEquals(34, map.map().size());
+        for (int i = 0; i < 100; i += 3) {
+            assertEquals(i, map.getInt(String.valueOf(i), -1));
+        }
+    }
+    
+    
+    @Test
+    void clear() {
+        map.putInt("a", 1);
+        map.put("a", String.class, "b");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertEquals(0, map.getInt("a", 0));
+    }
+    
+}
@@ -0,0 +1,218 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.collections;
+
+import com.karuslabs.commons.util.collections.ConcurrentWeakClassMap.*;
+
+import java.lang.ref.WeakReference;
+import java.util.*;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class WeakClassMapTest {
+    
+    ConcurrentWeakClassMap<Object> map = (ConcurrentWeakClassMap<Object>) WeakClassMap.of();
+    
+    
+    @Test
+    void get() {
+        map.put(String.class, "a");
+        
+        assertEquals("a", map.get(String.class));
+        assertTrue(map.containsKey(String.class));
+        assertFalse(map.containsKey(Integer.class));
+        assertNull(map.map().get("invalid"));
+    }
+    
+    
+    @Test
+    void map() {
+        var view = map.map();
+        view.put(String.class, "a");
+        
+        assertEquals("a", view.putIfAbsent(String.class, "b"));
+        assertEquals("a", view.replace(String.class, "c"));
+        assertTrue(view.replace(String.class, "c", "d"));
+        assertEquals(Map.of(String.class, "d"), view);
+        
+        assertFalse(view.remove(String.class, "a"));
+        assertEquals("d", view.remove(String.class));
+        assertTrue(view.isEmpty());
+    }
+    
+    
+    @Test
+    void map_iterator() {
+        map.put(String.class, "a");
+        map.put(Integer.class, 1);
+        
+        var iterator = map.map().entrySet().iterator();
+        assertThrows(IllegalStateException.class, iterator::remove);
+        
+        iterator.next();
+        iterator.remove();
+        iterator.next();
+        
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::next);
+        assertEquals(1, map.map().size());
+    }
+    
+    
+    @Test
+    void reclaimed() throws InterruptedException {
+        map.put(String.class, "a");
+        
+        // The value references its key through the class loader, as an instance of the key would
+        var type = Unloadable.load();
+        map.map().put(type, type.getClassLoader());
+        assertEquals(2, map.map().size());
+        
+        var reference = new WeakReference<>(type);
+        type = null;
+        assertTrue(Unloadable.collected(reference));
+        
+        for (int i = 0; i < 100 && map.reclaimed() == 0; i++) {
+            map.map().size();
+            Thread.sleep(10);
+        }
+        
+        assertEquals(1, map.reclaimed());
+        assertEquals(Map.of(String.class, "a"), map.map());
+    }
+    
+    
+    @Test
+    void reclaimed_lazy() throws InterruptedException {
+        // The supplier references the key through its class loader
+        var type = Unloadable.load();
+        map.putLazy((Class<Object>) type, type.getClassLoader()::getParent);
+        assertTrue(map.containsKey(type));
+        
+        var reference = new WeakReference<>(type);
+        type = null;
+        assertTrue(Unloadable.collected(reference));
+        
+        for (int i = 0; i < 100 && map.lazies(false) != null; i++) {
+            map.lazies(true).size();
+            Thread.sleep(10);
+        }
+        assertNull(map.lazies(false));
+    }
+    
+    
+    @Test
+    void remove_detached() {
+        map.put(String.class, "a");
+        var holder = map.values.get(String.class);
+        
+        map.map().remove(String.class);
+        assertTrue(holder.detached);
+        assertNotSame(holder, map.values.get(String.class));
+    }
+    
+    
+    @Test
+    void putLazy_detached() {
+        map.putLazy(String.class, () -> "a");
+        var holder = map.values.get(String.class);
+        assertEquals(1, map.lazies(false).size());
+        
+        assertEquals("a", map.get(String.class));
+        assertFalse(holder.detached);
+        assertNull(map.lazies(false));
+        
+        map.map().remove(String.class);
+        assertTrue(holder.detached);
+    }
+    
+    
+    @Test
+    void compute() {
+        var view = map.map();
+        
+        assertEquals("a", view.computeIfAbsent(String.class, type -> "a"));
+        assertEquals("a", view.computeIfAbsent(String.class, type -> "b"));
+        assertEquals("ab", view.computeIfPresent(String.class, (type, value) -> value + "b"));
+        assertNull(view.computeIfPresent(Integer.class, (type, value) -> 1));
+        assertEquals("abc", view.merge(String.class, "c", (old, value) -> (String) old + value));
+        assertNull(view.compute(String.class, (type, value) -> null));
+        assertTrue(view.isEmpty());
+        assertNull(view.replace(String.class, "d"));
+        assertFalse(view.containsKey(String.class));
+    }
+    
+    
+    @Test
+    void clear() {
+        map.put(String.class, "a");
+        map.map().clear();
+        
+        assertTrue(map.map().isEmpty());
+        assertEquals(0, WeakClassMap.of(1).reclaimed());
+    }
+    
+}
+
+
+@ExtendWith(MockitoExtension.class)
+class WeakKeyTest {
+    
+    WeakKey key = new WeakKey(String.class, null);
+    
+    
+    @Test
+    void equals() {
+        assertTrue(key.equals(key));
+        assertTrue(key.equals(new WeakKey(String.class, null)));
+        assertFalse(key.equals(new WeakKey(Integer.class, null)));
+        assertFalse(key.equals(String.class));
+    }
+    
+    
+    @Test
+    void equals_cleared() {
+        var other = new WeakKey(String.class, null);
+        other.clear();
+        
+        assertFalse(other.equals(key));
+    }
+    
+    
+    @Test
+    void lookup() {
+        var lookup = new Lookup(String.class);
+        
+        assertTrue(lookup.equals(key));
+        assertFalse(lookup.equals(String.class));
+        assertEquals(key.hashCode(), lookup.hashCode());
+    }
+    
+}
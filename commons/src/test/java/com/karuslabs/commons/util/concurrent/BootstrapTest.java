@@ -0,0 +1,139 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2018 Karus Labs.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package com.karuslabs.commons.util.concurrent;
+
+import java.util.concurrent.*;
+
+import org.junit.jupiter.api.*;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+@ExtendWith(MockitoExtension.class)
+class BootstrapTest {
+    
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    Bootstrap<Object> bootstrap = Bootstrap.of();
+    
+    
+    @AfterEach
+    void after() {
+        executor.shutdown();
+    }
+    
+    
+    @Test
+    void initialize() throws InterruptedException, ExecutionException {
+        var barrier = new CyclicBarrier(2);
+        
+        bootstrap.register(String.class, services -> services.get(Integer.class) + "-" + services.get(Long.class), Integer.class, Long.class)
+                 .register(Integer.class, services -> await(barrier, 1))
+                 .register(Long.class, services -> await(barrier, 2L));
+        
+        var result = bootstrap.initialize(executor).get();
+        
+        assertEquals("1-2", result.services().get(String.class));
+        assertEquals(3, result.services().map().size());
+        assertEquals(3, result.timings().size());
+        assertFalse(result.timings().get(String.class).isNegative());
+    }
+    
+    static <T> T await(CyclicBarrier barrier, T value) {
+        try {
+            barrier.await(10, TimeUnit.SECONDS);
+            return value;
+            
+        } catch (InterruptedException | BrokenBarrierException | TimeoutException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+    
+    
+    @Test
+    void initialize_undeclared() throws InterruptedException, ExecutionException {
+        bootstrap.register(String.class, services -> services.get(Long.class) + "-" + services.get(Integer.class), Long.class)
+                 .register(Long.class, services -> services.get(Integer.class) + 1L, Integer.class)
+                 .register(Integer.class, services -> 1);
+        
+        var services = bootstrap.initialize(executor).get().services();
+        
+        assertEquals("2-null", services.get(String.class));
+        assertEquals(3, services.map().size());
+    }
+    
+    
+    @Test
+    void initialize_exception() {
+        bootstrap.register(String.class, services -> services.get(Integer.class).toString(), Integer.class)
+                 .register(Integer.class, services -> { throw new IllegalArgumentException(); });
+        
+        var exception = assertThrows(ExecutionException.class, () -> bootstrap.initialize(executor).get());
+        assertEquals(IllegalArgumentException.class, exception.getCause().getClass());
+    }
+    
+    
+    @Test
+    void initialize_null() {
+        bootstrap.register(String.class, services -> null);
+        
+        var exception = assertThrows(ExecutionException.class, () -> bootstrap.initialize(executor).get());
+        assertEquals("Factory for service: java.lang.String returned null", exception.getCause().getMessage());
+    }
+    
+    
+    @Test
+    void register_duplicate() {
+        bootstrap.register(String.class, services -> "a");
+        assertEquals(
+            "Service: java.lang.String is already registered", 
+            assertThrows(IllegalArgumentException.class, () -> bootstrap.register(String.class, services -> "b")).getMessage()
+        );
+    }
+    
+    
+    @Test
+    void sort_unregistered() {
+        bootstrap.register(String.class, services -> "a", Integer.class);
+        assertEquals(
+            "Service: java.lang.String depends on unregistered service: java.lang.Integer", 
+            assertThrows(IllegalStateException.class, () -> bootstrap.initialize(executor)).getMessage()
+        );
+    }
+    
+    
+    @Test
+    void sort_circular() {
+        bootstrap.register(String.class, services -> "a", Integer.class)
+                 .register(Integer.class, services -> 1, String.class)
+                 .register(Long.class, services -> 1L);
+        
+        assertEquals(
+            "Services contain a circular dependency: [java.lang.String, java.lang.Integer]", 
+            assertThrows(IllegalStateException.class, () -> bootstrap.initialize(executor)).getMessage()
+        );
+    }
+    
+}